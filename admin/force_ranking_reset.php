@@ -18,6 +18,7 @@
 
 require_once __DIR__ . '/cors.php';
 require_once __DIR__ . '/../database.php';
+require_once __DIR__ . '/../includes/roulette_settings_cache.php';
 
 header('Content-Type: application/json');
 
@@ -318,6 +319,9 @@ try {
     
     // Commit
     $mysqli->commit();
+
+    // monetag_required_impressions mudou: descartar o cache de roulette_settings
+    invalidateRouletteSettingsCache();
     
     echo json_encode([
         'success' => true,
@@ -12,6 +12,7 @@
 
 require_once __DIR__ . '/../../admin/cors.php';
 require_once __DIR__ . '/../../database.php';
+require_once __DIR__ . '/../../includes/roulette_settings_cache.php';
 
 header('Content-Type: application/json');
 
@@ -243,6 +244,9 @@ try {
         
         // Commit da transação
         $conn->commit();
+
+        // monetag_required_impressions mudou: descartar o cache de roulette_settings
+        invalidateRouletteSettingsCache();
         
         echo json_encode([
             'success' => true,
@@ -4,6 +4,7 @@ require_once __DIR__ . '/../cors.php';
 header('Content-Type: application/json');
 
 require_once __DIR__ . '/../../database.php';
+require_once __DIR__ . '/../../includes/roulette_settings_cache.php';
 
 try {
     $method = $_SERVER['REQUEST_METHOD'];
@@ -94,6 +95,9 @@ try {
             $conn->commit();
             $conn->close();
             
+            // spin.php passa a ler os novos prêmios na próxima requisição
+            invalidateRouletteSettingsCache();
+            
             echo json_encode([
                 'success' => true,
                 'data' => [
@@ -45,6 +45,8 @@ date_default_timezone_set('America/Sao_Paulo');
 
 // Incluir arquivo de conexão
 require_once __DIR__ . '/../../../database.php';
+require_once __DIR__ . '/../../../includes/roulette_settings_cache.php';
+require_once __DIR__ . '/../../../includes/monetag_progress_signal.php';
 
 try {
     // Usar a função de conexão padrão
@@ -461,6 +463,16 @@ try {
     $monetagDeleted = $mysqli->query("DELETE FROM monetag_events");
     $monetagDeletedCount = $mysqli->affected_rows;
     
+    // 6.1 SPIN - Descartar chaves de idempotência antigas (o app só repete um giro por segundos)
+    $spinRequestsDeletedCount = 0;
+    try {
+        if ($mysqli->query("DELETE FROM spin_requests WHERE created_at < NOW() - INTERVAL 2 DAY")) {
+            $spinRequestsDeletedCount = $mysqli->affected_rows;
+        }
+    } catch (Exception $e) {
+        // Tabela pode não existir (migrations/create_spin_requests.sql), ignorar
+    }
+    
     // 7. CANDY CRUSH - Resetar níveis do jogo (volta todos para level 1)
     $candyLevelsReset = 0;
     $candyResult = $mysqli->query("UPDATE game_levels SET level = 1, highest_level = 1, last_level_score = 0, total_score = 0");
@@ -490,6 +502,11 @@ try {
     
     // Commit da transação
     $mysqli->commit();
+
+    // monetag_required_impressions mudou: descartar o cache de roulette_settings
+    invalidateRouletteSettingsCache();
+    // Progresso zerado: quem aguarda em progress_wait.php reconfere o banco
+    clearMonetagProgressSignals();
     
     // Retornar sucesso
     echo json_encode([
@@ -519,6 +536,7 @@ try {
                 'history_deleted' => $spinsDeletedCount,
                 'used_spins_deleted' => $spinsUsedDeletedCount,
                 'new_spins_created' => $spinsCreatedCount,
+                'spin_requests_deleted' => $spinRequestsDeletedCount,
                 'daily_spins_per_user' => $dailySpinsToGive,
                 'description' => 'Historico deletado, giros usados removidos e novos giros diarios criados para todos os usuarios'
             ],
@@ -211,6 +211,7 @@ $endpointMap = [
     '/checkin.php' => __DIR__ . '/checkin.php',
     
     // Spin (Roleta)
+    '/api/v1/spin_batch.php' => __DIR__ . '/spin_batch.php', // Giros em lote (auto-spin)
     '/api/v1/spin.php' => __DIR__ . '/spin.php',
     '/spin.php' => __DIR__ . '/spin.php', // ADICIONADO: variante sem prefixo
     
@@ -9,6 +9,11 @@
  * 3. Tabela corrigida: monetag_impressions -> monetag_events
  * 4. Leitura do body compatível com secure.php (usa _SECURE_REQUEST_BODY se disponível)
  * 5. server_timestamp agora retorna milissegundos (timestamp Unix * 1000)
+ * 6. POST idempotente: request_id (ou header Idempotency-Key) é liquidado uma única vez;
+ *    repetições devolvem a resposta original com replayed=true (tabela spin_requests,
+ *    migrations/create_spin_requests.sql). Só falhas transitórias do banco (deadlock,
+ *    lock wait, conexão) retornam retryable=true; regras de negócio retornam false.
+ *    Sem a tabela (migração ainda não aplicada) o giro é processado sem chave.
  */
 
 error_reporting(0);
@@ -17,7 +22,7 @@ ini_set('display_errors', '0');
 header('Content-Type: application/json');
 header('Access-Control-Allow-Origin: *');
 header('Access-Control-Allow-Methods: GET, POST, OPTIONS');
-header('Access-Control-Allow-Headers: Content-Type, Authorization');
+header('Access-Control-Allow-Headers: Content-Type, Authorization, Idempotency-Key');
 
 // Detectar se estamos sendo chamados via secure.php (tunnel criptografado)
 // Se sim, NÃO definir http_response_code(500) pois o secure.php precisa retornar 200
@@ -50,6 +55,8 @@ require_once __DIR__ . '/../../includes/security_validation_helper.php';
 require_once __DIR__ . '/../../includes/auth_helper.php';
 require_once __DIR__ . '/middleware/MaintenanceCheck.php';
 require_once __DIR__ . '/includes/CooldownCheck.php';
+require_once __DIR__ . '/../../includes/roulette_settings_cache.php';
+require_once __DIR__ . '/../../includes/spin_request_keys.php';
 
 $conn = getDbConnection();
 
@@ -77,34 +84,8 @@ if (!$user) {
 
 checkAndResetRanking($conn);
 
-// Buscar valores da roleta
-$prizeValues = [];
-$maxDailySpins = 10;
-
-try {
-    $stmt = $conn->prepare("SELECT setting_key, setting_value FROM roulette_settings ORDER BY setting_key");
-    $stmt->execute();
-    $result = $stmt->get_result();
-    
-    while ($row = $result->fetch_assoc()) {
-        $key = $row['setting_key'];
-        $value = (int)$row['setting_value'];
-        
-        if ($key === 'max_daily_spins') {
-            $maxDailySpins = $value;
-        } elseif (strpos($key, 'prize_') === 0) {
-            $prizeValues[] = $value;
-        }
-    }
-    $stmt->close();
-    
-    if (empty($prizeValues)) {
-        $prizeValues = [100, 250, 500, 750, 1000, 1500, 2000, 5000];
-    }
-} catch (Exception $e) {
-    $prizeValues = [100, 250, 500, 750, 1000, 1500, 2000, 5000];
-    $maxDailySpins = 10;
-}
+// Buscar valores da roleta (cache de roulette_settings)
+[$prizeValues, $maxDailySpins] = getRoulettePrizeConfig($conn);
 
 try {
     $userId = $user['id'];
@@ -112,29 +93,21 @@ try {
     $currentDate = date('Y-m-d');
     $currentDateTime = date('Y-m-d H:i:s');
     
-    // Contar giros disponíveis (não usados) do usuário
+    // Giros disponíveis e giros usados HOJE numa única passada pelo índice
+    // (user_id, is_used, used_at) - migrations/add_user_spins_counter_index.sql
+    $tomorrowDate = date('Y-m-d', strtotime('+1 day'));
     $stmt = $conn->prepare("
-        SELECT COUNT(*) as available_spins 
+        SELECT 
+            COUNT(CASE WHEN is_used = 0 THEN 1 END) as available_spins,
+            COUNT(CASE WHEN is_used = 1 AND used_at >= ? AND used_at < ? THEN 1 END) as spins_today
         FROM user_spins 
-        WHERE user_id = ? AND is_used = 0
+        WHERE user_id = ?
     ");
-    $stmt->bind_param("i", $userId);
+    $stmt->bind_param("ssi", $currentDate, $tomorrowDate, $userId);
     $stmt->execute();
     $result = $stmt->get_result();
     $row = $result->fetch_assoc();
     $availableSpins = (int)$row['available_spins'];
-    $stmt->close();
-    
-    // CORREÇÃO: Contar giros usados HOJE para spins_today
-    $stmt = $conn->prepare("
-        SELECT COUNT(*) as spins_today 
-        FROM user_spins 
-        WHERE user_id = ? AND is_used = 1 AND DATE(used_at) = ?
-    ");
-    $stmt->bind_param("is", $userId, $currentDate);
-    $stmt->execute();
-    $result = $stmt->get_result();
-    $row = $result->fetch_assoc();
     $spinsToday = (int)$row['spins_today'];
     $stmt->close();
     
@@ -151,26 +124,24 @@ try {
     // Gerar server_timestamp em milissegundos (compatível com o frontend)
     $serverTimestamp = round(microtime(true) * 1000);
     
-    // GET: Retornar giros disponíveis
+    // GET: Retornar giros disponíveis (bootstrap da roleta: giros, prêmios, horário e tarefa)
     if ($_SERVER['REQUEST_METHOD'] === 'GET') {
         $required_impressions = 10;
         $current_impressions = 0;
         $task_completed = false;
         
+        // Progresso diário da tarefa (mesmos requisitos fixos de monetag/progress.php)
+        $daily_required_impressions = 20;
+        $daily_required_clicks = 2;
+        $impressions_today = 0;
+        $clicks_today = 0;
+        
         try {
-            // Buscar required_impressions do roulette_settings (definido pelo cron diário)
-            $settings_stmt = $conn->prepare("
-                SELECT setting_value FROM roulette_settings 
-                WHERE setting_key = 'monetag_required_impressions'
-            ");
-            $settings_stmt->execute();
-            $settings_result = $settings_stmt->get_result();
-            
-            if ($settings_result->num_rows > 0) {
-                $settings_row = $settings_result->fetch_assoc();
-                $required_impressions = (int)$settings_row['setting_value'];
+            // Buscar required_impressions do roulette_settings (definido pelo cron diário, via cache)
+            $rouletteSettings = getRouletteSettings($conn);
+            if (isset($rouletteSettings['monetag_required_impressions'])) {
+                $required_impressions = (int)$rouletteSettings['monetag_required_impressions'];
             }
-            $settings_stmt->close();
             
             // Tentar buscar de user_required_impressions (override por usuário)
             try {
@@ -193,16 +164,24 @@ try {
             }
             
             // CORREÇÃO: Usar tabela monetag_events em vez de monetag_impressions (que não existe)
+            // Uma única consulta traz o total (monetag_task) e o progresso do dia
+            // (mesmas regras de monetag/progress.php), dispensando a chamada separada do app
             try {
                 $impressions_stmt = $conn->prepare("
-                    SELECT COUNT(*) as total FROM monetag_events 
+                    SELECT 
+                        COUNT(*) as total,
+                        COUNT(CASE WHEN event_type = 'impression' AND DATE(created_at) = ? THEN 1 END) as impressions_today,
+                        COUNT(CASE WHEN event_type = 'click' AND DATE(created_at) = ? THEN 1 END) as clicks_today
+                    FROM monetag_events 
                     WHERE user_id = ?
                 ");
-                $impressions_stmt->bind_param("i", $userId);
+                $impressions_stmt->bind_param("ssi", $currentDate, $currentDate, $userId);
                 $impressions_stmt->execute();
                 $impressions_result = $impressions_stmt->get_result();
                 $impressions_row = $impressions_result->fetch_assoc();
                 $current_impressions = (int)$impressions_row['total'];
+                $impressions_today = (int)$impressions_row['impressions_today'];
+                $clicks_today = (int)$impressions_row['clicks_today'];
                 $impressions_stmt->close();
             } catch (Exception $e) {
                 // Se monetag_events também não existir, tentar coluna na tabela users
@@ -246,6 +225,15 @@ try {
                     'required_impressions' => $required_impressions,
                     'current_impressions' => $current_impressions,
                     'completed' => $task_completed
+                ],
+                // Bootstrap da roleta: o app decide o estado da tarefa sem chamar progress/stats
+                'task_progress' => [
+                    'impressions' => $impressions_today,
+                    'clicks' => $clicks_today,
+                    'required_impressions' => $daily_required_impressions,
+                    'required_clicks' => $daily_required_clicks,
+                    'all_completed' => $impressions_today >= $daily_required_impressions
+                        && $clicks_today >= $daily_required_clicks
                 ]
             ]
         ]);
@@ -254,6 +242,17 @@ try {
     
     // POST: Usar um giro
     if ($_SERVER['REQUEST_METHOD'] === 'POST') {
+        // Chave de idempotência gerada pelo app (a mesma em todas as tentativas do giro)
+        $requestKey = readSpinRequestKey($requestData);
+        if ($requestKey !== null && !spinRequestsAvailable($conn)) {
+            error_log("spin.php: tabela spin_requests ausente, aplicar migrations/create_spin_requests.sql");
+            $requestKey = null;
+        }
+        if ($requestKey !== null) {
+            // Antes de checar saldo de giros: o giro repetido já foi consumido
+            replayStoredSpin($conn, $userId, $requestKey);
+        }
+
         // Verificar se tem giros disponíveis
         if ($availableSpins <= 0) {
             echo json_encode([
@@ -294,6 +293,12 @@ try {
         $conn->begin_transaction();
         
         try {
+            // 0. Reservar a chave: uma repetição concorrente espera este commit no
+            //    índice único e falha com chave duplicada (tratada no catch)
+            if ($requestKey !== null) {
+                reserveSpinRequest($conn, $userId, $requestKey);
+            }
+
             // 1. Buscar um giro disponível para marcar como usado
             $stmt = $conn->prepare("
                 SELECT id FROM user_spins 
@@ -352,10 +357,7 @@ try {
             $stmt->execute();
             $stmt->close();
             
-            // Commit
-            $conn->commit();
-            
-            // Obter saldo atualizado
+            // Obter saldo atualizado (dentro da transação: a resposta é gravada junto)
             $stmt = $conn->prepare("SELECT points FROM users WHERE id = ?");
             $stmt->bind_param("i", $userId);
             $stmt->execute();
@@ -368,7 +370,7 @@ try {
             $spinsToday++;
             
             // CORREÇÃO: Retornar campos com nomes compatíveis com o frontend Android
-            echo json_encode([
+            $response = [
                 'status' => 'success',
                 'message' => "Você ganhou {$prizeValue} pontos!",
                 'data' => [
@@ -383,14 +385,36 @@ try {
                     'server_timestamp' => $serverTimestamp,       // CORRIGIDO: era 'server_time', agora em ms
                     'server_time' => $currentDateTime              // Retrocompatibilidade
                 ]
-            ]);
+            ];
+            
+            // 6. Guardar a resposta para as repetições da mesma chave
+            if ($requestKey !== null) {
+                storeSpinResponse($conn, $userId, $requestKey, $response);
+            }
+            
+            // Commit
+            $conn->commit();
+            
+            echo json_encode($response);
             
         } catch (Exception $e) {
             $conn->rollback();
-            setErrorHttpCode(500);
+            
+            // Mesma chave liquidada em paralelo: devolver o resultado dela
+            if ($requestKey !== null && (int)$e->getCode() === 1062) {
+                replayStoredSpin($conn, $userId, $requestKey);
+            }
+            
+            // Nada foi aplicado (rollback). Só vale repetir com a mesma chave se a
+            // falha foi do banco; regra de negócio (ex.: giro não encontrado) é final
+            $retryable = isTransientSpinError($e);
+            if ($retryable) {
+                setErrorHttpCode(500);
+            }
             echo json_encode([
                 'status' => 'error',
-                'message' => 'Erro ao processar giro: ' . $e->getMessage()
+                'message' => 'Erro ao processar giro: ' . $e->getMessage(),
+                'retryable' => $retryable
             ]);
         }
     }
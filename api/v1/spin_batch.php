@@ -0,0 +1,292 @@
+<?php
+/**
+ * Spin Wheel API - Giros em lote (auto-spin)
+ * Liquida N giros em UMA transação e retorna a lista ordenada de prêmios
+ *
+ * Endpoint: POST /api/v1/spin_batch.php
+ * Body: { "count": N, "request_id": "<chave>" } (ou header Idempotency-Key)
+ *
+ * O app anima os prêmios um após o outro sem esperar a rede a cada giro.
+ * Mesmas tabelas e regras do POST de spin.php (user_spins, spin_history,
+ * users, points_history), com inserts em múltiplas linhas.
+ * A chave do lote é liquidada uma única vez (includes/spin_request_keys.php):
+ * um reenvio recebe o mesmo lote em vez de liquidar outro.
+ */
+
+error_reporting(0);
+ini_set('display_errors', '0');
+
+header('Content-Type: application/json');
+header('Access-Control-Allow-Origin: *');
+header('Access-Control-Allow-Methods: POST, OPTIONS');
+header('Access-Control-Allow-Headers: Content-Type, Authorization, Idempotency-Key');
+
+// Detectar se estamos sendo chamados via secure.php (tunnel criptografado)
+$_IS_SECURE_CONTEXT = isset($GLOBALS['_SECURE_VALIDATOR']);
+
+function setErrorHttpCode($code) {
+    global $_IS_SECURE_CONTEXT;
+    if (!$_IS_SECURE_CONTEXT) {
+        http_response_code($code);
+    }
+}
+
+if ($_SERVER['REQUEST_METHOD'] === 'OPTIONS') {
+    http_response_code(200);
+    exit;
+}
+
+if ($_SERVER['REQUEST_METHOD'] !== 'POST') {
+    setErrorHttpCode(405);
+    echo json_encode(['status' => 'error', 'message' => 'Método não permitido']);
+    exit;
+}
+
+require_once __DIR__ . '/../../database.php';
+require_once __DIR__ . '/../../includes/HeadersValidator.php';
+require_once __DIR__ . '/../../middleware/auto_reset.php';
+require_once __DIR__ . '/../../includes/security_validation_helper.php';
+require_once __DIR__ . '/../../includes/auth_helper.php';
+require_once __DIR__ . '/middleware/MaintenanceCheck.php';
+require_once __DIR__ . '/includes/CooldownCheck.php';
+require_once __DIR__ . '/../../includes/roulette_settings_cache.php';
+require_once __DIR__ . '/../../includes/spin_request_keys.php';
+
+$conn = getDbConnection();
+
+// Ler body de _SECURE_REQUEST_BODY se disponível (chamada via secure.php)
+if (isset($GLOBALS['_SECURE_REQUEST_BODY']) && !empty($GLOBALS['_SECURE_REQUEST_BODY'])) {
+    $requestData = json_decode($GLOBALS['_SECURE_REQUEST_BODY'], true) ?? [];
+} else {
+    $requestData = json_decode(file_get_contents('php://input'), true) ?? [];
+}
+$userEmail = $requestData['email'] ?? null;
+$appVersion = $requestData['app_version'] ?? $_SERVER['HTTP_X_APP_VERSION'] ?? null;
+checkMaintenanceAndVersion($conn, $userEmail, $appVersion);
+
+// Autenticar usuário
+$user = getAuthenticatedUser($conn);
+if (!$user) {
+    sendUnauthorizedError();
+}
+
+checkAndResetRanking($conn);
+
+// Buscar valores da roleta (cache de roulette_settings)
+[$prizeValues, $maxDailySpins] = getRoulettePrizeConfig($conn);
+
+// Quantidade pedida: entre 1 e max_daily_spins
+$requestedCount = (int)($requestData['count'] ?? 1);
+if ($requestedCount < 1) {
+    $requestedCount = 1;
+}
+if ($requestedCount > $maxDailySpins) {
+    $requestedCount = $maxDailySpins;
+}
+
+try {
+    $userId = $user['id'];
+    date_default_timezone_set('America/Sao_Paulo');
+    $currentDate = date('Y-m-d');
+    $currentDateTime = date('Y-m-d H:i:s');
+    $serverTimestamp = round(microtime(true) * 1000);
+
+    // Chave do lote: um reenvio devolve o lote já liquidado (antes do cooldown)
+    $requestKey = readSpinRequestKey($requestData);
+    if ($requestKey !== null && !spinRequestsAvailable($conn)) {
+        error_log("spin_batch.php: tabela spin_requests ausente, aplicar migrations/create_spin_requests.sql");
+        $requestKey = null;
+    }
+    if ($requestKey !== null) {
+        replayStoredSpin($conn, $userId, $requestKey);
+    }
+
+    // Verificar cooldown (uma vez para o lote inteiro)
+    $cooldownCheck = shouldBlockDailyPoints($conn, $userId, 0, 'Spin em lote - Tentativa durante cooldown');
+
+    if (!$cooldownCheck['allowed']) {
+        echo json_encode([
+            'status' => 'error',
+            'message' => 'Você está em cooldown de ranking. Não pode acumular pontos agora.',
+            'data' => [
+                'reason' => $cooldownCheck['reason'],
+                'cooldown_info' => $cooldownCheck['cooldown_info'],
+                'can_still_spin' => false
+            ]
+        ]);
+        exit;
+    }
+
+    $conn->begin_transaction();
+
+    try {
+        if ($requestKey !== null) {
+            reserveSpinRequest($conn, $userId, $requestKey);
+        }
+
+        // 1. Reservar até N giros disponíveis (FOR UPDATE evita liquidar o mesmo giro duas vezes)
+        $stmt = $conn->prepare("
+            SELECT id FROM user_spins
+            WHERE user_id = ? AND is_used = 0
+            ORDER BY id
+            LIMIT ?
+            FOR UPDATE
+        ");
+        $stmt->bind_param("ii", $userId, $requestedCount);
+        $stmt->execute();
+        $result = $stmt->get_result();
+        $spinIds = [];
+        while ($row = $result->fetch_assoc()) {
+            $spinIds[] = (int)$row['id'];
+        }
+        $stmt->close();
+
+        if (empty($spinIds)) {
+            $conn->rollback();
+            echo json_encode([
+                'status' => 'error',
+                'message' => 'Você não tem giros disponíveis. Volte amanhã!',
+                'data' => [
+                    'spins_remaining' => 0,
+                    'available_spins' => 0,
+                    'max_daily_spins' => $maxDailySpins,
+                    'server_timestamp' => $serverTimestamp,
+                    'server_time' => $currentDateTime
+                ]
+            ]);
+            exit;
+        }
+
+        $count = count($spinIds);
+
+        // Sortear os prêmios na ordem em que serão animados
+        $prizes = [];
+        $totalPoints = 0;
+        for ($i = 0; $i < $count; $i++) {
+            $prizeIndex = array_rand($prizeValues);
+            $prizes[] = [
+                'prize_value' => $prizeValues[$prizeIndex],
+                'prize_index' => $prizeIndex
+            ];
+            $totalPoints += $prizeValues[$prizeIndex];
+        }
+
+        // 2. Marcar todos os giros como usados
+        $placeholders = implode(',', array_fill(0, $count, '?'));
+        $stmt = $conn->prepare("UPDATE user_spins SET is_used = 1, used_at = NOW() WHERE id IN ($placeholders)");
+        $stmt->bind_param(str_repeat('i', $count), ...$spinIds);
+        $stmt->execute();
+        $stmt->close();
+
+        // 3. Registrar no histórico de giros (uma linha por giro)
+        $rows = implode(',', array_fill(0, $count, '(?, ?, ?)'));
+        $params = [];
+        foreach ($prizes as $prize) {
+            array_push($params, $userId, $prize['prize_value'], $currentDateTime);
+        }
+        $stmt = $conn->prepare("INSERT INTO spin_history (user_id, prize_value, created_at) VALUES $rows");
+        $stmt->bind_param(str_repeat('iis', $count), ...$params);
+        $stmt->execute();
+        $stmt->close();
+
+        // 4. Adicionar o total de pontos ao usuário
+        $stmt = $conn->prepare("
+            UPDATE users
+            SET points = points + ?,
+                daily_points = daily_points + ?,
+                updated_at = ?
+            WHERE id = ?
+        ");
+        $stmt->bind_param("iisi", $totalPoints, $totalPoints, $currentDateTime, $userId);
+        $stmt->execute();
+        $stmt->close();
+
+        // 5. Registrar no histórico de pontos (uma linha por giro)
+        $rows = implode(',', array_fill(0, $count, '(?, ?, ?, NOW())'));
+        $params = [];
+        foreach ($prizes as $prize) {
+            $description = "Roleta da Sorte - Ganhou {$prize['prize_value']} pontos";
+            array_push($params, $userId, $prize['prize_value'], $description);
+        }
+        $stmt = $conn->prepare("INSERT INTO points_history (user_id, points, description, created_at) VALUES $rows");
+        $stmt->bind_param(str_repeat('iis', $count), ...$params);
+        $stmt->execute();
+        $stmt->close();
+
+        // Contadores e saldo após o lote (dentro da transação: a resposta é gravada junto)
+        $tomorrowDate = date('Y-m-d', strtotime('+1 day'));
+        $stmt = $conn->prepare("
+            SELECT
+                COUNT(CASE WHEN is_used = 0 THEN 1 END) as available_spins,
+                COUNT(CASE WHEN is_used = 1 AND used_at >= ? AND used_at < ? THEN 1 END) as spins_today
+            FROM user_spins
+            WHERE user_id = ?
+        ");
+        $stmt->bind_param("ssi", $currentDate, $tomorrowDate, $userId);
+        $stmt->execute();
+        $row = $stmt->get_result()->fetch_assoc();
+        $availableSpins = (int)($row['available_spins'] ?? 0);
+        $spinsToday = (int)($row['spins_today'] ?? 0);
+        $stmt->close();
+
+        $stmt = $conn->prepare("SELECT points FROM users WHERE id = ?");
+        $stmt->bind_param("i", $userId);
+        $stmt->execute();
+        $userData = $stmt->get_result()->fetch_assoc();
+        $newBalance = $userData['points'];
+        $stmt->close();
+
+        $response = [
+            'status' => 'success',
+            'message' => "Você ganhou {$totalPoints} pontos em {$count} giros!",
+            'data' => [
+                'prizes' => $prizes,
+                'spin_count' => $count,
+                'total_points' => $totalPoints,
+                'spins_remaining' => $availableSpins,
+                'available_spins' => $availableSpins,
+                'spins_today' => $spinsToday,
+                'max_daily_spins' => $maxDailySpins,
+                'new_balance' => $newBalance,
+                'server_timestamp' => $serverTimestamp,
+                'server_time' => $currentDateTime
+            ]
+        ];
+
+        // 6. Guardar a resposta para os reenvios da mesma chave
+        if ($requestKey !== null) {
+            storeSpinResponse($conn, $userId, $requestKey, $response);
+        }
+
+        $conn->commit();
+    } catch (Exception $e) {
+        $conn->rollback();
+
+        // Mesma chave liquidada em paralelo: devolver o lote dela
+        if ($requestKey !== null && (int)$e->getCode() === 1062) {
+            replayStoredSpin($conn, $userId, $requestKey);
+        }
+
+        // Nada foi aplicado (rollback): só falhas do banco valem uma nova tentativa
+        $retryable = isTransientSpinError($e);
+        if ($retryable) {
+            setErrorHttpCode(500);
+        }
+        echo json_encode([
+            'status' => 'error',
+            'message' => 'Erro ao processar giros: ' . $e->getMessage(),
+            'retryable' => $retryable
+        ]);
+        exit;
+    }
+
+    echo json_encode($response);
+
+} catch (Exception $e) {
+    setErrorHttpCode(500);
+    echo json_encode([
+        'status' => 'error',
+        'message' => 'Erro: ' . $e->getMessage()
+    ]);
+}
+?>
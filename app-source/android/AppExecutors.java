@@ -0,0 +1,60 @@
+package com.youngmoney2;
+
+import com.youngmoney2.utils.DiagLog;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AppExecutors - Executores compartilhados do app para trabalho em segundo plano
+ *
+ * - background(): pool limitado (rede, verificações)
+ * - disk(): uma thread, em ordem (snapshot, exportação de métricas)
+ *
+ * Threads ociosas morrem após alguns segundos, então abrir e fechar telas
+ * repetidamente não acumula threads. Com a fila cheia, execute()/submit()
+ * lançam RejectedExecutionException: quem enfileira trata a recusa (ex.:
+ * entregando erro a quem espera), em vez de a tarefa sumir em silêncio.
+ */
+public final class AppExecutors {
+    private static final String TAG = "AppExecutors";
+    private static final int BACKGROUND_THREADS = 4;
+    private static final int BACKGROUND_QUEUE = 64;
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private static final ExecutorService BACKGROUND = newPool("yM-bg", BACKGROUND_THREADS, BACKGROUND_QUEUE);
+    private static final ExecutorService DISK = newPool("yM-disk", 1, BACKGROUND_QUEUE);
+
+    private AppExecutors() {
+    }
+
+    public static ExecutorService background() {
+        return BACKGROUND;
+    }
+
+    public static ExecutorService disk() {
+        return DISK;
+    }
+
+    private static ExecutorService newPool(String name, int threads, int queueSize) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueSize), factory,
+                (runnable, pool) -> {
+                    DiagLog.w(TAG, "Fila de {} cheia, tarefa recusada", name);
+                    throw new RejectedExecutionException("Fila de " + name + " cheia");
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
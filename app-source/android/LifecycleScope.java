@@ -0,0 +1,80 @@
+package com.youngmoney2;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * LifecycleScope - Trabalho assíncrono amarrado ao ciclo de vida de uma tela
+ *
+ * Tarefas em segundo plano vão para o pool compartilhado (AppExecutors) e as
+ * entregas na UI thread passam pelo handler do escopo. cancel() interrompe as
+ * tarefas em andamento, remove as entregas pendentes e descarta as futuras,
+ * então nenhum callback chega a uma activity destruída.
+ */
+public final class LifecycleScope {
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Set<Future<?>> tasks = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private volatile boolean cancelled;
+
+    /**
+     * Executa a tarefa no pool compartilhado; interrompida no cancel()
+     *
+     * @return null se o escopo já foi cancelado
+     */
+    public Future<?> launch(Runnable task) {
+        if (cancelled) return null;
+        FutureTask<Void> future = new FutureTask<Void>(task, null) {
+            @Override
+            protected void done() {
+                tasks.remove(this);
+            }
+        };
+        tasks.add(future);
+        try {
+            AppExecutors.background().execute(future);
+        } catch (RejectedExecutionException e) {
+            // Pool cheio: a tarefa não roda; o Future já sai cancelado
+            future.cancel(false);
+        }
+        return future;
+    }
+
+    /**
+     * Entrega na UI thread, descartada se o escopo for cancelado antes
+     */
+    public void post(Runnable action) {
+        if (cancelled) return;
+        handler.post(() -> {
+            if (!cancelled) action.run();
+        });
+    }
+
+    public void postDelayed(Runnable action, long delayMs) {
+        if (cancelled) return;
+        handler.postDelayed(action, delayMs);
+    }
+
+    public void removeCallbacks(Runnable action) {
+        handler.removeCallbacks(action);
+    }
+
+    public boolean isActive() {
+        return !cancelled;
+    }
+
+    public void cancel() {
+        cancelled = true;
+        handler.removeCallbacksAndMessages(null);
+        for (Future<?> task : tasks) {
+            task.cancel(true);
+        }
+        tasks.clear();
+    }
+}
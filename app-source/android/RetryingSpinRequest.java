@@ -0,0 +1,137 @@
+package com.youngmoney2;
+
+import android.os.SystemClock;
+
+import com.youngmoney2.api.ApiClient;
+import com.youngmoney2.utils.DiagLog;
+
+import org.json.JSONObject;
+
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * RetryingSpinRequest - Giro idempotente com novas tentativas automáticas
+ *
+ * Gera UMA chave (request_id) por giro e a reenvia em todas as tentativas:
+ * spin.php liquida cada chave uma única vez e devolve a resposta original nas
+ * repetições, então repetir após erro de rede ou sobrecarga nunca credita em
+ * dobro. As tentativas usam backoff exponencial com jitter e param no prazo.
+ * Opcionalmente dispara uma cópia (hedge) se a primeira resposta demorar.
+ *
+ * Deve ser usado na UI thread; o callback é entregue nela pelo escopo, e nada
+ * é entregue depois que o escopo for cancelado.
+ */
+public class RetryingSpinRequest {
+    private static final String TAG = "RetryingSpinRequest";
+    private static final int MAX_ATTEMPTS = 4;
+    private static final long BACKOFF_BASE_MS = 300;
+    private static final long BACKOFF_MAX_MS = 3000;
+
+    private final ApiClient apiClient;
+    private final LifecycleScope scope;
+    private final long deadlineMs;
+    private final long hedgeDelayMs;
+    private final ApiClient.ApiCallback callback;
+    private final String requestId = UUID.randomUUID().toString();
+    private final Random random = new Random();
+    private final Runnable hedge = this::sendHedge;
+
+    private long startedAt;
+    private int attempts;
+    private int inFlight;
+    private boolean done;
+
+    /**
+     * @param deadlineMs   sem nova tentativa depois desse prazo (a tentativa em andamento sempre termina)
+     * @param hedgeDelayMs espera pela primeira resposta antes da cópia; 0 desativa
+     */
+    public RetryingSpinRequest(ApiClient apiClient, LifecycleScope scope, long deadlineMs, long hedgeDelayMs,
+                               ApiClient.ApiCallback callback) {
+        this.apiClient = apiClient;
+        this.scope = scope;
+        this.deadlineMs = deadlineMs;
+        this.hedgeDelayMs = hedgeDelayMs;
+        this.callback = callback;
+    }
+
+    public void start() {
+        startedAt = SystemClock.uptimeMillis();
+        send();
+        if (hedgeDelayMs > 0) {
+            scope.postDelayed(hedge, hedgeDelayMs);
+        }
+    }
+
+    /**
+     * Requisições enviadas até agora (tentativas e hedge)
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    private void send() {
+        if (done) return;
+        attempts++;
+        inFlight++;
+        apiClient.executeSpin(requestId, new ApiClient.ApiCallback() {
+            @Override
+            public void onSuccess(JSONObject response) {
+                scope.post(() -> onResult(response, null));
+            }
+
+            @Override
+            public void onError(String error) {
+                scope.post(() -> onResult(null, error));
+            }
+        });
+    }
+
+    private void sendHedge() {
+        // Só se a primeira tentativa ainda estiver sem resposta
+        if (done || attempts != 1 || inFlight == 0) return;
+        DiagLog.d(TAG, "🔀 Sem resposta em {}ms, enviando cópia do giro {}", hedgeDelayMs, requestId);
+        send();
+    }
+
+    private void onResult(JSONObject response, String error) {
+        inFlight--;
+        if (done) return;
+
+        if (response != null && !response.optBoolean("retryable", false)) {
+            // Sucesso ou erro de negócio (sem giros, cooldown): resposta final
+            finish();
+            callback.onSuccess(response);
+            return;
+        }
+
+        String reason = response != null ? response.optString("message", "Erro no servidor") : error;
+        // Outra requisição (hedge) ainda pode trazer o resultado
+        if (inFlight > 0) return;
+
+        long delay = backoffDelay(attempts);
+        long elapsed = SystemClock.uptimeMillis() - startedAt;
+        if (attempts >= MAX_ATTEMPTS || elapsed + delay >= deadlineMs) {
+            DiagLog.w(TAG, "❌ Giro {} falhou após {} tentativas: {}", requestId, attempts, reason);
+            finish();
+            callback.onError(reason);
+            return;
+        }
+
+        DiagLog.w(TAG, "⚠️ Tentativa {} falhou ({}), repetindo em {}ms", attempts, reason, delay);
+        scope.postDelayed(this::send, delay);
+    }
+
+    /**
+     * Backoff exponencial com jitter total: aleatório entre 0 e min(máx, base * 2^n)
+     */
+    private long backoffDelay(int attempt) {
+        long cap = Math.min(BACKOFF_MAX_MS, BACKOFF_BASE_MS << Math.min(attempt - 1, 10));
+        return (long) (random.nextDouble() * cap);
+    }
+
+    private void finish() {
+        done = true;
+        scope.removeCallbacks(hedge);
+    }
+}
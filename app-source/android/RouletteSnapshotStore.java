@@ -0,0 +1,167 @@
+package com.youngmoney2;
+
+import android.content.Context;
+
+import com.youngmoney2.utils.DiagLog;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.util.Calendar;
+import java.util.TimeZone;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * RouletteSnapshotStore - Último estado conhecido da roleta por usuário
+ *
+ * Arquivo binário pequeno e versionado (files/roulette_snapshot/&lt;userId&gt;.bin)
+ * com valores da roleta, contadores, status da tarefa e horário do servidor.
+ * A activity mostra o snapshot na abertura e revalida em segundo plano; os
+ * dados do servidor sempre prevalecem. Contadores e tarefa de outro dia
+ * (horário de Brasília, mesmo do reset diário) são descartados.
+ */
+public class RouletteSnapshotStore {
+    private static final String TAG = "RouletteSnapshotStore";
+    private static final int VERSION = 1;
+    private static final TimeZone SERVER_TIME_ZONE = TimeZone.getTimeZone("America/Sao_Paulo");
+
+    private static RouletteSnapshotStore instance;
+
+    private final File directory;
+
+    public static final class Snapshot {
+        public final long savedAt;
+        public final long serverTimestamp;
+        public final int[] prizeValues;
+        // -1 quando o snapshot é de outro dia
+        public final int spinsRemaining;
+        public final int spinsToday;
+        public final int maxDailySpins;
+        // null quando desconhecido ou de outro dia
+        public final Boolean taskCompleted;
+
+        public Snapshot(long savedAt, long serverTimestamp, int[] prizeValues, int spinsRemaining,
+                        int spinsToday, int maxDailySpins, Boolean taskCompleted) {
+            this.savedAt = savedAt;
+            this.serverTimestamp = serverTimestamp;
+            this.prizeValues = prizeValues;
+            this.spinsRemaining = spinsRemaining;
+            this.spinsToday = spinsToday;
+            this.maxDailySpins = maxDailySpins;
+            this.taskCompleted = taskCompleted;
+        }
+
+        public boolean hasCounters() {
+            return spinsRemaining >= 0;
+        }
+    }
+
+    public static synchronized RouletteSnapshotStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new RouletteSnapshotStore(new File(context.getApplicationContext().getFilesDir(),
+                    "roulette_snapshot"));
+        }
+        return instance;
+    }
+
+    private RouletteSnapshotStore(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Lê o snapshot do usuário (arquivo de ~100 bytes, leitura síncrona)
+     *
+     * @return null se não houver snapshot válido
+     */
+    public Snapshot load(String userId) {
+        if (userId == null || userId.isEmpty()) return null;
+        File file = fileFor(userId);
+        if (!file.exists()) return null;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != VERSION) {
+                DiagLog.d(TAG, "Snapshot de versão antiga ignorado");
+                return null;
+            }
+            long savedAt = in.readLong();
+            long serverTimestamp = in.readLong();
+            int[] prizeValues = new int[in.readUnsignedByte()];
+            for (int i = 0; i < prizeValues.length; i++) {
+                prizeValues[i] = in.readInt();
+            }
+            int spinsRemaining = in.readInt();
+            int spinsToday = in.readInt();
+            int maxDailySpins = in.readInt();
+            byte task = in.readByte();
+            Boolean taskCompleted = task == 2 ? null : task == 1;
+
+            if (!sameServerDay(savedAt, System.currentTimeMillis())) {
+                // Novo dia: só os valores da roleta continuam válidos
+                return new Snapshot(savedAt, serverTimestamp, prizeValues, -1, 0, maxDailySpins, null);
+            }
+            return new Snapshot(savedAt, serverTimestamp, prizeValues, spinsRemaining, spinsToday,
+                    maxDailySpins, taskCompleted);
+        } catch (Exception e) {
+            DiagLog.w(TAG, "Snapshot ilegível, descartando: {}", e.getMessage());
+            file.delete();
+            return null;
+        }
+    }
+
+    /**
+     * Grava o snapshot numa thread de fundo (arquivo temporário + rename)
+     */
+    public void save(String userId, Snapshot snapshot) {
+        if (userId == null || userId.isEmpty() || snapshot.prizeValues == null) return;
+        try {
+            AppExecutors.disk().execute(() -> write(userId, snapshot));
+        } catch (RejectedExecutionException e) {
+            DiagLog.w(TAG, "Snapshot não salvo: {}", e.getMessage());
+        }
+    }
+
+    private void write(String userId, Snapshot snapshot) {
+        if (!directory.exists() && !directory.mkdirs()) return;
+        File file = fileFor(userId);
+        File temp = new File(directory, file.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(VERSION);
+            out.writeLong(snapshot.savedAt);
+            out.writeLong(snapshot.serverTimestamp);
+            int count = Math.min(snapshot.prizeValues.length, 255);
+            out.writeByte(count);
+            for (int i = 0; i < count; i++) {
+                out.writeInt(snapshot.prizeValues[i]);
+            }
+            out.writeInt(snapshot.spinsRemaining);
+            out.writeInt(snapshot.spinsToday);
+            out.writeInt(snapshot.maxDailySpins);
+            out.writeByte(snapshot.taskCompleted == null ? 2 : snapshot.taskCompleted ? 1 : 0);
+        } catch (Exception e) {
+            DiagLog.w(TAG, "Erro ao gravar snapshot: {}", e.getMessage());
+            temp.delete();
+            return;
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+        }
+    }
+
+    private File fileFor(String userId) {
+        // userId é numérico; filtrar por segurança antes de usar no nome do arquivo
+        return new File(directory, userId.replaceAll("[^0-9A-Za-z_-]", "_") + ".bin");
+    }
+
+    private static boolean sameServerDay(long first, long second) {
+        Calendar a = Calendar.getInstance(SERVER_TIME_ZONE);
+        a.setTimeInMillis(first);
+        Calendar b = Calendar.getInstance(SERVER_TIME_ZONE);
+        b.setTimeInMillis(second);
+        return a.get(Calendar.YEAR) == b.get(Calendar.YEAR)
+                && a.get(Calendar.DAY_OF_YEAR) == b.get(Calendar.DAY_OF_YEAR);
+    }
+}
@@ -7,23 +7,29 @@ import android.net.Uri;
 import android.content.res.Configuration;
 import android.content.res.Resources;
 import android.os.Bundle;
-import android.os.Handler;
-import android.os.Looper;
-import android.util.DisplayMetrics;
-import android.util.Log;
+import android.os.SystemClock;
+import android.view.Choreographer;
+import android.view.ViewGroup;
 import android.webkit.JavascriptInterface;
 import android.webkit.WebSettings;
 import android.webkit.WebView;
+import android.widget.FrameLayout;
 
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.youngmoney2.api.ApiClient;
 import com.youngmoney2.api.ApiResponse;
+import com.youngmoney2.metrics.RetentionWatcher;
+import com.youngmoney2.metrics.RouletteMetrics;
+import com.youngmoney2.utils.DiagLog;
 import com.youngmoney2.utils.SessionManager;
-import com.youngmoney2.security.SecurityConfig;
 
 import org.json.JSONObject;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.UUID;
+
 /**
  * SpinWheelActivity - Roleta profissional com WebView em tela cheia
  */
@@ -32,6 +38,9 @@ public class SpinWheelActivity extends AppCompatActivity {
     private static final int MIN_DPI_THRESHOLD = 411;
     // Fator de escala: quanto menor o DPI original, mais reduzimos para caber na tela
     private static final float SCALE_FACTOR = 0.65f; // Reduz para 65% do tamanho
+    // Extra que ativa o modo de renderização nativo (SpinWheelView) no lugar do canvas do HTML
+    public static final String EXTRA_NATIVE_WHEEL = "native_wheel";
+    private static final long NATIVE_WHEEL_RELAYOUT_DELAY_MS = 100;
     private int originalDpi = 0;
     private int targetDpi = 0;
 
@@ -40,181 +49,363 @@ public class SpinWheelActivity extends AppCompatActivity {
     private int spinsRemaining = 0;
     private int spinsToday = 0;
     private int maxDailySpins = 10;
-    private boolean isSpinning = false;
-    private boolean webViewLoaded = false;
-    private String pendingPrizeValues = null;
+    // Watchdog caso a página nunca avise o fim da animação (onSpinComplete)
+    private static final long SPIN_ANIMATION_WATCHDOG_MS = 8000;
+    // Inicia a animação antes da resposta do servidor (giro manual, modo WebView)
+    private static final boolean SPECULATIVE_SPIN_ENABLED = true;
+    // Giro idempotente: novas tentativas até o prazo e cópia (hedge) se a resposta demorar
+    private static final long SPIN_REQUEST_DEADLINE_MS = 10000;
+    private static final long SPIN_HEDGE_DELAY_MS = 2500;
+    // Debug: espera callbacks da sessão anterior terminarem antes de contar telas retidas
+    private static final long RETENTION_CHECK_DELAY_MS = 5000;
+    private RetryingSpinRequest spinRequest;
+    private TaskPageLauncher taskPageLauncher;
+    // Eventos da página: pela interface "Android" ou pelo canal WebMessagePort
+    private final WebAppInterface webAppInterface = new WebAppInterface(this);
+    private SpinState spinState = SpinState.IDLE;
+    // Entregas na UI thread e tarefas assíncronas; cancelado no onDestroy
+    private final LifecycleScope scope = new LifecycleScope();
+    private final Runnable spinWatchdog = () -> {
+        if (spinState == SpinState.ANIMATING) {
+            DiagLog.w(TAG, "⏱️ Watchdog: fim da animação não recebido, liberando giro");
+            settleSpin();
+        }
+    };
+    private WebBridgeDispatcher bridge;
+    private boolean pageLoadCold = false;
+    private boolean usingPooledWebView = false;
+    private long createdAt = 0;
+    private boolean nativeWheelMode = false;
+    private SpinWheelView nativeWheelView;
+    private int[] prizeValues;
+    // Prêmios já liquidados pelo servidor (lote do auto-spin) aguardando animação
+    private final ArrayDeque<Integer> settledSpinQueue = new ArrayDeque<>();
+    // Auto-spin liquida só alguns giros à frente: parar ou sair não consome o saldo todo
+    private static final int AUTO_SPIN_LOOKAHEAD = 3;
+    // Lote sem resposta: reenviado com a mesma chave e quantidade (o servidor devolve o original)
+    private String batchRequestId;
+    private int batchRequestCount;
+    private long pageLoadStartedAt = 0;
+    // Status da tarefa ainda será entregue pelo bootstrap (spin.php GET)
+    private boolean bootstrapPending = false;
+    // Conclusão da tarefa chega por long-poll enquanto a activity está em primeiro plano
+    private final TaskStatusWatcher taskStatusWatcher = new TaskStatusWatcher();
+    private Boolean taskCompleted;
+    private boolean resumed = false;
+    // Tempos de abertura e de giro (histogramas por sessão)
+    private RouletteMetrics.Session metrics;
+    private long spinRequestStartedAt = 0;
+    private long spinAnimationStartedAt = 0;
+    private int evaluationsAtInteractive = 0;
+    // Último estado salvo já exibido (revalidado pelo bootstrap)
+    private boolean snapshotShown = false;
+    private long lastServerTimestamp = 0;
+    // Quando o estado exibido foi confirmado pelo servidor (0 = nunca); vira o savedAt do snapshot
+    private long stateConfirmedAt = 0;
 
     // Valores possíveis de pontos na roleta (sincronizados com API e JavaScript)
 
 
     @Override
     protected void attachBaseContext(Context newBase) {
-        super.attachBaseContext(applyDpiIfNeeded(newBase));
+        metrics = RouletteMetrics.getInstance(newBase).beginSession();
+        long dpiStartedAt = metrics.now();
+        Context context = applyDpiIfNeeded(newBase);
+        metrics.recordSince(RouletteMetrics.APPLY_DPI, dpiStartedAt);
+        metrics.setDimension("density_dpi", originalDpi);
+        metrics.setDimension("low_dpi", originalDpi > 0 && originalDpi < MIN_DPI_THRESHOLD);
+        super.attachBaseContext(context);
+        metrics.mark(RouletteMetrics.PHASE_ATTACH_BASE_CONTEXT);
     }
 
     /**
      * Aplica DPI customizado apenas se o DPI do dispositivo for menor que 411
-     * DIMINUI o DPI para que os elementos fiquem menores e caibam na tela
+     * DIMINUI o DPI para que os elementos fiquem menores e caibam na tela.
+     * O override fica no contexto base e vale também após mudanças de configuração.
      */
     private Context applyDpiIfNeeded(Context context) {
         try {
             Resources resources = context.getResources();
-            DisplayMetrics displayMetrics = resources.getDisplayMetrics();
-            originalDpi = displayMetrics.densityDpi;
-
-            if (originalDpi < MIN_DPI_THRESHOLD) {
-                // Calcular DPI reduzido para que elementos fiquem menores
-                targetDpi = (int) (originalDpi * SCALE_FACTOR);
-                Log.d(TAG, "DPI baixo detectado: " + originalDpi + " - Reduzindo para " + targetDpi + " (escala " + SCALE_FACTOR + ")");
-                Configuration configuration = new Configuration(resources.getConfiguration());
-                configuration.densityDpi = targetDpi;
-                return context.createConfigurationContext(configuration);
+            DpiProfile profile = DpiProfile.forDeviceDpi(resources.getDisplayMetrics().densityDpi);
+            originalDpi = profile.originalDpi;
+            targetDpi = profile.targetDpi;
+
+            if (profile.isScaled()) {
+                DiagLog.d(TAG, "DPI baixo detectado: {} - Reduzindo para {} (escala {})", originalDpi, targetDpi, SCALE_FACTOR);
+                return createRouletteContext(context);
             } else {
-                Log.d(TAG, "DPI adequado: " + originalDpi + " - Nenhum ajuste necessário");
+                DiagLog.d(TAG, "DPI adequado: {} - Nenhum ajuste necessário", originalDpi);
             }
         } catch (Exception e) {
-            Log.e(TAG, "Erro ao verificar/aplicar DPI: " + e.getMessage());
+            DiagLog.e(TAG, "Erro ao verificar/aplicar DPI: {}", e.getMessage());
         }
         return context;
     }
 
+    /**
+     * Contexto com a mesma densidade da roleta (DPI reduzido em telas de DPI baixo).
+     * Também usado pelo WebView pré-aquecido do pool, que nasce fora da activity.
+     */
+    static Context createRouletteContext(Context context) {
+        Resources resources = context.getResources();
+        DpiProfile profile = DpiProfile.forDeviceDpi(resources.getDisplayMetrics().densityDpi);
+        if (!profile.isScaled()) return context;
+        Configuration configuration = new Configuration(resources.getConfiguration());
+        configuration.densityDpi = profile.targetDpi;
+        return context.createConfigurationContext(configuration);
+    }
+
+    /**
+     * Perfil de DPI calculado uma única vez para a densidade física do aparelho
+     */
+    private static final class DpiProfile {
+        private static DpiProfile cached;
+
+        final int originalDpi;
+        // 0 = sem ajuste
+        final int targetDpi;
+
+        private DpiProfile(int originalDpi, int targetDpi) {
+            this.originalDpi = originalDpi;
+            this.targetDpi = targetDpi;
+        }
+
+        boolean isScaled() {
+            return targetDpi > 0;
+        }
+
+        static synchronized DpiProfile forDeviceDpi(int deviceDpi) {
+            if (cached == null || cached.originalDpi != deviceDpi) {
+                int target = deviceDpi < MIN_DPI_THRESHOLD ? (int) (deviceDpi * SCALE_FACTOR) : 0;
+                cached = new DpiProfile(deviceDpi, target);
+            }
+            return cached;
+        }
+    }
+
     @SuppressLint("SetJavaScriptEnabled")
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        createdAt = SystemClock.elapsedRealtime();
+        nativeWheelMode = getIntent().getBooleanExtra(EXTRA_NATIVE_WHEEL, false);
 
-        // Aplicar DPI adicional no onCreate se necessário
-        applyDpiOnCreate();
-
-        setContentView(R.layout.activity_spin_wheel);
+        // Container vazio: o WebView entra em seguida, do pool ou criado aqui (nunca inflado para ser descartado)
+        FrameLayout container = new FrameLayout(this);
+        setContentView(container);
 
         // Initialize API Client
         apiClient = ApiClient.getInstance(this);
 
-        // Initialize views
-        webView = findViewById(R.id.spin_wheel_webview);
-
-        // Setup WebView
-        setupWebView();
-
-        // Load user spin data
-        loadSpinData();
+        // Aquecer o navegador para a página de tarefas enquanto a roleta está aberta
+        taskPageLauncher = new TaskPageLauncher(this, metrics);
+        taskPageLauncher.bind();
+        String taskUserId = apiClient.getUserId();
+        if (taskUserId == null || taskUserId.isEmpty()) {
+            taskUserId = SessionManager.getInstance(this).getUserId();
+        }
+        taskPageLauncher.prepare(taskUserId);
 
-        // Verificar se a tarefa foi concluída
-        checkTaskCompletionStatus();
-    }
+        // Initialize views: usar o WebView pré-aquecido do pool se houver
+        WebView pooledWebView = SpinWheelWebViewPool.getInstance(this).acquire(this);
+        usingPooledWebView = pooledWebView != null;
+        if (usingPooledWebView) {
+            webView = pooledWebView;
+        } else {
+            long createStartedAt = metrics.now();
+            webView = new WebView(this);
+            metrics.recordSince(RouletteMetrics.CREATE_WEBVIEW, createStartedAt);
+        }
+        webView.setId(R.id.spin_wheel_webview);
+        container.addView(webView, new FrameLayout.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+        // Abertura com e sem pool em histogramas separados do processo (comparação no relatório)
+        metrics.setCohort(usingPooledWebView ? "pooled_webview" : "fresh_webview");
 
-    /**
-     * Aplica DPI customizado no onCreate para garantir consistência
-     * DIMINUI o DPI para que os elementos fiquem menores
-     */
-    private void applyDpiOnCreate() {
-        try {
-            Resources resources = getResources();
-            DisplayMetrics displayMetrics = resources.getDisplayMetrics();
+        bridge = new WebBridgeDispatcher(webView, webAppInterface);
 
-            if (originalDpi == 0) {
-                originalDpi = displayMetrics.densityDpi;
-                targetDpi = (int) (originalDpi * SCALE_FACTOR);
-            }
+        // Setup WebView
+        long setupStartedAt = metrics.now();
+        setupWebView();
+        metrics.recordSince(RouletteMetrics.SETUP_WEBVIEW, setupStartedAt);
 
-            if (originalDpi < MIN_DPI_THRESHOLD && targetDpi > 0) {
-                displayMetrics.densityDpi = targetDpi;
-                displayMetrics.density = targetDpi / 160f;
-                displayMetrics.scaledDensity = targetDpi / 160f;
+        // Mostrar já o último estado conhecido; o bootstrap revalida em seguida
+        applySnapshot();
 
-                Configuration configuration = resources.getConfiguration();
-                configuration.densityDpi = targetDpi;
+        // Bootstrap: giros, prêmios, horário do servidor e status da tarefa numa só chamada
+        bootstrapPending = true;
+        loadSpinData();
 
-                resources.updateConfiguration(configuration, displayMetrics);
+        metrics.setDimension("pooled_webview", usingPooledWebView);
+        metrics.setDimension("native_wheel", nativeWheelMode);
+        metrics.mark(RouletteMetrics.PHASE_ON_CREATE);
 
-                Log.d(TAG, "DPI reduzido no onCreate: " + originalDpi + " -> " + targetDpi);
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "Erro ao aplicar DPI no onCreate: " + e.getMessage());
+        if (BuildConfig.DEBUG) {
+            scope.postDelayed(() -> scope.launch(() -> metrics.setCounter(
+                    RouletteMetrics.COUNTER_RETAINED_ACTIVITIES, RetentionWatcher.countRetained())),
+                    RETENTION_CHECK_DELAY_MS);
         }
     }
 
+    /**
+     * Rotação, tema, fonte e tamanho de tela são tratados aqui sem recriar a
+     * activity (android:configChanges="orientation|screenSize|smallestScreenSize|
+     * screenLayout|keyboardHidden|uiMode|fontScale|density" no manifest): o WebView,
+     * a página e o giro em andamento continuam, sem recarregar e sem rede.
+     */
     @Override
     public void onConfigurationChanged(Configuration newConfig) {
         super.onConfigurationChanged(newConfig);
-        // Reaplicar DPI se necessário após mudança de configuração
-        if (originalDpi > 0 && originalDpi < MIN_DPI_THRESHOLD) {
-            applyDpiOnCreate();
+        DiagLog.d(TAG, "Configuração alterada sem recriar (orientação {}, fontScale {})",
+                newConfig.orientation, newConfig.fontScale);
+
+        // A página reflui sozinha no resize; só acompanhar a escala de fonte do sistema
+        webView.getSettings().setTextZoom(Math.round(newConfig.fontScale * 100));
+
+        if (nativeWheelView != null) {
+            // Reposicionar a roleta nativa sobre o canvas depois que a página refluir
+            scope.postDelayed(this::enableNativeWheel, NATIVE_WHEEL_RELAYOUT_DELAY_MS);
         }
     }
 
     @SuppressLint("SetJavaScriptEnabled")
     private void setupWebView() {
-        // Limpar cache do WebView para garantir que carrega a versão mais recente
-        webView.clearCache(true);
-        webView.clearHistory();
-
-        WebSettings webSettings = webView.getSettings();
-        webSettings.setJavaScriptEnabled(true);
-        webSettings.setDomStorageEnabled(true);
-        webSettings.setAllowFileAccess(true);
-        webSettings.setAllowContentAccess(true);
-        webSettings.setCacheMode(WebSettings.LOAD_NO_CACHE); // Forçar reload sem cache
-
-        // Adicionar interface JavaScript
-        webView.addJavascriptInterface(new WebAppInterface(), "Android");
+        SpinWheelWebViewPool pool = SpinWheelWebViewPool.getInstance(this);
+        if (usingPooledWebView) {
+            // WebView do pool já está configurado e com a interface "Android" registrada
+            pool.attach(webView, webAppInterface);
+        } else {
+            // Limpar cache do WebView apenas quando os assets da roleta mudaram
+            pageLoadCold = SpinWheelAssetVersion.invalidateCacheIfChanged(this, webView);
+
+            WebSettings webSettings = webView.getSettings();
+            webSettings.setJavaScriptEnabled(true);
+            webSettings.setDomStorageEnabled(true);
+            webSettings.setAllowFileAccess(false); // Página servida em https pelo WebViewAssetLoader
+            webSettings.setAllowContentAccess(true);
+            webSettings.setCacheMode(WebSettings.LOAD_DEFAULT); // Cache normal, versionado por hash
+
+            // Adicionar interface JavaScript
+            webView.addJavascriptInterface(webAppInterface, "Android");
+        }
 
         // Habilitar console do JavaScript
         webView.setWebChromeClient(new android.webkit.WebChromeClient() {
             @Override
             public boolean onConsoleMessage(android.webkit.ConsoleMessage consoleMessage) {
-                Log.d(TAG, "[WebView Console] " + consoleMessage.message() + " -- From line " + consoleMessage.lineNumber() + " of " + consoleMessage.sourceId());
+                // Console do HTML é muito verboso: só formatar se o nível estiver ativo
+                if (DiagLog.isLoggable(TAG, DiagLog.DEBUG)) {
+                    DiagLog.d(TAG, "[WebView Console] {} -- From line {} of {}", consoleMessage.message(), consoleMessage.lineNumber(), consoleMessage.sourceId());
+                }
                 return true;
             }
         });
 
         // Adicionar WebViewClient para detectar quando página carregou
+        WebResourceCache resourceCache = WebResourceCache.getInstance(this);
+        androidx.webkit.WebViewAssetLoader assetLoader = SpinWheelWebViewPool.assetLoader(this);
         webView.setWebViewClient(new android.webkit.WebViewClient() {
+            @Override
+            public android.webkit.WebResourceResponse shouldInterceptRequest(android.webkit.WebView view,
+                                                                              android.webkit.WebResourceRequest request) {
+                // Página e arquivos locais: assets do app na origem https
+                android.webkit.WebResourceResponse asset = assetLoader.shouldInterceptRequest(request.getUrl());
+                if (asset != null) return asset;
+                // Scripts remotos permitidos saem do cache do app; hosts bloqueados não vão à rede
+                android.webkit.WebResourceResponse cached = resourceCache.intercept(request);
+                return cached != null ? cached : super.shouldInterceptRequest(view, request);
+            }
+
+            @Override
+            public void onPageStarted(android.webkit.WebView view, String url, android.graphics.Bitmap favicon) {
+                super.onPageStarted(view, url, favicon);
+                pageLoadStartedAt = SystemClock.elapsedRealtime();
+            }
+
             @Override
             public void onPageFinished(android.webkit.WebView view, String url) {
                 super.onPageFinished(view, url);
-                Log.d(TAG, "WebView onPageFinished");
-                webViewLoaded = true;
+                long loadMs = SystemClock.elapsedRealtime() - pageLoadStartedAt;
+                DiagLog.d(TAG, "WebView onPageFinished - carregamento {}: {}ms", (pageLoadCold ? "frio" : "com cache"), loadMs);
+                onRoulettePageReady();
+            }
+        });
 
-                // Injetar userId no WebView para o YMID display
-                try {
-                    // Usar apiClient.getUserId() que funciona (SessionManager pode retornar null)
-                    ApiClient api = ApiClient.getInstance(SpinWheelActivity.this);
-                    String injectedId = api.getUserId();
-                    Log.d(TAG, "[YMID-INJECT] apiClient.getUserId() = " + injectedId);
-                    if (injectedId != null && !injectedId.isEmpty()) {
-                        String jsInject = "window._injectedUserId = '" + injectedId.replace("'", "\\'" ) + "'; " +
-                                "console.log('[YMID] Injetado pelo Java: " + injectedId + "'); " +
-                                "if(typeof displayYmid === 'function') displayYmid();";
-                        Log.d(TAG, "[YMID-INJECT] Injetando userId no WebView: " + injectedId);
-                        webView.evaluateJavascript(jsInject, null);
-                    } else {
-                        Log.w(TAG, "[YMID-INJECT] userId vazio via apiClient, não injetando");
-                    }
-                } catch (Exception e) {
-                    Log.e(TAG, "[YMID-INJECT] Erro ao injetar userId: " + e.getMessage());
-                }
+        if (usingPooledWebView && pool.isPageLoaded(webView)) {
+            // Página já carregada pelo pool: não haverá onPageFinished
+            onRoulettePageReady();
+        } else if (!usingPooledWebView) {
+            // Carregar HTML da roleta
+            webView.loadUrl(SpinWheelWebViewPool.PAGE_URL);
+        }
+    }
 
-                // Atualizar contador e valores se já foram carregados da API
-                if (pendingPrizeValues != null) {
-                    Log.d(TAG, "Setting prize values in onPageFinished: " + pendingPrizeValues);
-                    webView.evaluateJavascript("if(typeof setPrizeValues === 'function') setPrizeValues(" + pendingPrizeValues + ")", null);
-                } else {
-                    Log.d(TAG, "No pending prize values yet");
-                }
-                Log.d(TAG, "Calling updateSpinsCounter with spins: " + spinsRemaining);
-                updateSpinsCounter();
+    /**
+     * Página da roleta pronta (onPageFinished ou WebView do pool já carregado)
+     */
+    private void onRoulettePageReady() {
+        metrics.mark(RouletteMetrics.PHASE_PAGE_FINISHED);
+        markInteractiveWhenReady();
+        DiagLog.i(TAG, "Roleta pronta em {}ms desde onCreate ({})", SystemClock.elapsedRealtime() - createdAt, (usingPooledWebView ? "WebView do pool" : "WebView novo"));
+
+        // Sessão enviada uma vez à página (YMID, postbacks da Monetag, verificação da tarefa)
+        // Usar apiClient.getUserId() que funciona (SessionManager pode retornar null)
+        try {
+            SessionManager sessionManager = SessionManager.getInstance(SpinWheelActivity.this);
+            String userId = apiClient.getUserId();
+            if (userId == null || userId.isEmpty()) {
+                userId = sessionManager.getUserId();
+            }
+            bridge.setSession(new WebBridgeDispatcher.Session(userId, sessionManager.getEmail(), -1));
+        } catch (Exception e) {
+            DiagLog.e(TAG, "[SESSION] Erro ao montar sessão da página: {}", e.getMessage());
+        }
+
+        // Abrir o canal e enviar de uma vez todo o estado que chegou antes da página
+        bridge.onPageReady();
+
+        if (nativeWheelMode && nativeWheelView == null) {
+            enableNativeWheel();
+        }
+    }
 
-                // Se API já carregou (spinsRemaining != 3 padrão), esconder loading
-                if (spinsRemaining != 3 || pendingPrizeValues != null) {
-                    // Loading is now controlled by JavaScript
+    /**
+     * Modo nativo: esconde o canvas do HTML e posiciona um SpinWheelView no lugar dele
+     * (chamado de novo após mudanças de configuração para reposicionar)
+     */
+    private void enableNativeWheel() {
+        webView.evaluateJavascript("typeof enableNativeWheel === 'function' ? enableNativeWheel() : null", result -> {
+            try {
+                if (result == null || "null".equals(result)) {
+                    DiagLog.w(TAG, "Página sem suporte ao modo nativo, mantendo canvas");
+                    return;
+                }
+                JSONObject rect = new JSONObject(result);
+                float dpr = (float) rect.optDouble("dpr", 1);
+                int width = Math.round((float) rect.optDouble("width", 0) * dpr);
+                int height = Math.round((float) rect.optDouble("height", 0) * dpr);
+
+                if (nativeWheelView == null) {
+                    nativeWheelView = new SpinWheelView(this);
+                    if (prizeValues != null) {
+                        nativeWheelView.setPrizeValues(prizeValues);
+                    }
+                    ViewGroup parent = (ViewGroup) webView.getParent();
+                    parent.addView(nativeWheelView, new ViewGroup.LayoutParams(width, height));
+                } else {
+                    // Mudança de configuração: mesmo SpinWheelView, novo tamanho/posição
+                    ViewGroup.LayoutParams layoutParams = nativeWheelView.getLayoutParams();
+                    layoutParams.width = width;
+                    layoutParams.height = height;
+                    nativeWheelView.setLayoutParams(layoutParams);
                 }
+                nativeWheelView.setTranslationX(webView.getLeft() + (float) rect.optDouble("left", 0) * dpr);
+                nativeWheelView.setTranslationY(webView.getTop() + (float) rect.optDouble("top", 0) * dpr);
+                DiagLog.d(TAG, "Modo nativo da roleta ativado ({}x{})", width, height);
+            } catch (Exception e) {
+                DiagLog.e(TAG, "Erro ao ativar modo nativo: {}", e.getMessage());
             }
         });
-
-        // Carregar HTML da roleta
-        webView.loadUrl("file:///android_asset/spin_wheel/index.html");
     }
 
     /**
@@ -226,238 +417,211 @@ public class SpinWheelActivity extends AppCompatActivity {
      * Se não foi: mostrar "Assistir Anúncio" e "Realize a tarefa"
      */
     private void checkTaskCompletionStatus() {
-        Log.d(TAG, "🔍 Verificando status da tarefa...");
+        DiagLog.d(TAG, "🔍 Verificando status da tarefa...");
 
         ApiClient apiClient = ApiClient.getInstance(this);
         String userId = apiClient.getUserId();
 
         if (userId == null || userId.isEmpty()) {
-            Log.e(TAG, "❌ User ID não encontrado para verificar tarefa");
+            DiagLog.e(TAG, "❌ User ID não encontrado para verificar tarefa");
             return;
         }
 
-        // Primeiro buscar o número de impressões necessárias da API YoungMoney
-        String progressApiUrl = SecurityConfig.getMontagProgressEndpoint() + "?user_id=" + userId;
-        String statsApiUrl = SecurityConfig.getMontagStatsEndpoint() + userId;
-
-        Log.d(TAG, "📡 Chamando API Progress: " + progressApiUrl);
-        Log.d(TAG, "📡 Chamando API Stats: " + statsApiUrl);
-
-        new Thread(() -> {
-            try {
-                // 1. Buscar progresso da API progress.php (impressões + cliques)
-                int requiredImpressions = 20; // valor padrão fixo
-                int requiredClicks = 2; // valor padrão fixo
-                boolean taskCompleted = false;
-
-                try {
-                    java.net.URL progressUrl = new java.net.URL(progressApiUrl);
-                    java.net.HttpURLConnection progressConn = (java.net.HttpURLConnection) progressUrl.openConnection();
-                    progressConn.setRequestMethod("GET");
-                    progressConn.setConnectTimeout(10000);
-                    progressConn.setReadTimeout(10000);
-
-                    int progressResponseCode = progressConn.getResponseCode();
-                    Log.d(TAG, "📊 Resposta API Progress: " + progressResponseCode);
-
-                    if (progressResponseCode == java.net.HttpURLConnection.HTTP_OK) {
-                        java.io.BufferedReader progressReader = new java.io.BufferedReader(
-                                new java.io.InputStreamReader(progressConn.getInputStream())
-                        );
-                        StringBuilder progressResponse = new StringBuilder();
-                        String progressLine;
-                        while ((progressLine = progressReader.readLine()) != null) {
-                            progressResponse.append(progressLine);
-                        }
-                        progressReader.close();
-
-                        JSONObject progressJson = new JSONObject(progressResponse.toString());
-                        Log.d(TAG, "📋 Progress JSON: " + progressJson.toString());
-
-                        if (progressJson.optBoolean("success", false)) {
-                            JSONObject progressData = progressJson.optJSONObject("data");
-                            if (progressData != null) {
-                                requiredImpressions = progressData.optInt("required_impressions", 20);
-                                requiredClicks = progressData.optInt("required_clicks", 2);
-                                int impressions = progressData.optInt("impressions", 0);
-                                int clicks = progressData.optInt("clicks", 0);
-                                taskCompleted = progressData.optBoolean("all_completed", false);
-
-                                Log.d(TAG, "🎯 Requisitos: " + requiredImpressions + " impressões, " + requiredClicks + " cliques");
-                                Log.d(TAG, "📊 Progresso: " + impressions + "/" + requiredImpressions + " impressões, " + clicks + "/" + requiredClicks + " cliques");
-                                Log.d(TAG, (taskCompleted ? "✅" : "⏳") + " Tarefa concluída: " + taskCompleted);
-                            }
-                        }
-                    }
-                    progressConn.disconnect();
-                } catch (Exception e) {
-                    Log.e(TAG, "⚠️ Erro ao buscar progresso, usando padrão: " + e.getMessage());
-                }
-
-                // 2. Fallback: buscar stats do monetag-postback-server se progress falhou
-                if (!taskCompleted) {
-                    try {
-                        java.net.URL url = new java.net.URL(statsApiUrl);
-                        java.net.HttpURLConnection connection = (java.net.HttpURLConnection) url.openConnection();
-                        connection.setRequestMethod("GET");
-                        connection.setConnectTimeout(10000);
-                        connection.setReadTimeout(10000);
-
-                        int responseCode = connection.getResponseCode();
-                        Log.d(TAG, "📊 Resposta da API Stats: " + responseCode);
-
-                        if (responseCode == java.net.HttpURLConnection.HTTP_OK) {
-                            java.io.BufferedReader reader = new java.io.BufferedReader(
-                                    new java.io.InputStreamReader(connection.getInputStream())
-                            );
-                            StringBuilder response = new StringBuilder();
-                            String line;
-                            while ((line = reader.readLine()) != null) {
-                                response.append(line);
-                            }
-                            reader.close();
-
-                            JSONObject jsonResponse = new JSONObject(response.toString());
-                            Log.d(TAG, "📋 Resposta JSON Stats: " + jsonResponse.toString());
-
-                            int totalImpressions = jsonResponse.optInt("total_impressions", 0);
-                            int totalClicks = jsonResponse.optInt("total_clicks", 0);
-
-                            Log.d(TAG, "📊 Stats: " + totalImpressions + " impressões, " + totalClicks + " cliques");
-
-                            boolean impressionsOk = totalImpressions >= requiredImpressions;
-                            boolean clicksOk = totalClicks >= requiredClicks;
-                            taskCompleted = impressionsOk && clicksOk;
+        // Chamadas simultâneas (onCreate + onResume) compartilham a mesma requisição
+        TaskStatusRepository.getInstance().getTaskStatus(userId, completed -> {
+            if (!scope.isActive()) return;
+            DiagLog.d(TAG, "{} Tarefa concluída: {}", (completed ? "✅" : "⏳"), completed);
+            applyTaskStatus(completed);
+            startTaskStatusWatcher();
+        });
+    }
 
-                            Log.d(TAG, (taskCompleted ? "✅" : "⏳") + " Tarefa (stats): " + taskCompleted);
-                        }
-                        connection.disconnect();
-                    } catch (Exception e) {
-                        Log.e(TAG, "⚠️ Erro ao buscar stats: " + e.getMessage());
-                    }
-                }
+    private void applyTaskStatus(boolean completed) {
+        taskCompleted = completed;
+        bridge.setTaskCompleted(completed);
+        metrics.mark(RouletteMetrics.PHASE_TASK_STATUS_RESOLVED);
+        markInteractiveWhenReady();
+    }
 
-                // Enviar resultado para o HTML
-                final boolean finalTaskCompleted = taskCompleted;
-                runOnUiThread(() -> {
-                    if (webViewLoaded) {
-                        String jsCommand = "if(typeof setTaskCompletionStatus === 'function') setTaskCompletionStatus(" + finalTaskCompleted + ")";
-                        Log.d(TAG, "📤 Enviando para HTML: " + jsCommand);
-                        webView.evaluateJavascript(jsCommand, null);
-                    } else {
-                        Log.d(TAG, "⏳ WebView ainda não carregou, tentando novamente em 500ms");
-                        new Handler(Looper.getMainLooper()).postDelayed(
-                                this::checkTaskCompletionStatus,
-                                500
-                        );
-                    }
-                });
+    /**
+     * Página, giros e status da tarefa prontos: o próximo frame é o primeiro interativo
+     */
+    private void markInteractiveWhenReady() {
+        if (!metrics.hasMark(RouletteMetrics.PHASE_PAGE_FINISHED)
+                || !metrics.hasMark(RouletteMetrics.PHASE_SPIN_DATA_LOADED)
+                || !metrics.hasMark(RouletteMetrics.PHASE_TASK_STATUS_RESOLVED)
+                || metrics.hasMark(RouletteMetrics.PHASE_FIRST_INTERACTIVE_FRAME)) {
+            return;
+        }
+        Choreographer.getInstance().postFrameCallback(frameTimeNanos -> {
+            metrics.mark(RouletteMetrics.PHASE_FIRST_INTERACTIVE_FRAME);
+            evaluationsAtInteractive = bridge.getEvaluationCount();
+        });
+    }
 
-            } catch (Exception e) {
-                Log.e(TAG, "❌ Erro ao verificar tarefa: " + e.getMessage());
-                e.printStackTrace();
-            }
-        }).start();
+    /**
+     * Escuta a conclusão da tarefa a partir do último status conhecido
+     * (sem status conhecido o servidor responde na hora)
+     */
+    private void startTaskStatusWatcher() {
+        if (!resumed || bootstrapPending) return;
+        String userId = apiClient.getUserId();
+        if (userId == null || userId.isEmpty()) return;
+        taskStatusWatcher.start(userId, taskCompleted, this::applyTaskStatus);
     }
 
     private void loadSpinData() {
-        Log.d(TAG, "loadSpinData() called");
+        DiagLog.d(TAG, "loadSpinData() called");
+        metrics.increment(RouletteMetrics.COUNTER_API_REQUESTS);
         apiClient.getSpinsRemaining(new ApiClient.ApiCallback() {
             @Override
             public void onSuccess(JSONObject response) {
-                Log.d(TAG, "API Success: " + response.toString());
-                runOnUiThread(() -> {
+                DiagLog.d(TAG, "API Success: {}", response);
+                scope.post(() -> {
                     try {
                         ApiResponse apiResponse = new ApiResponse(response);
-                        Log.d(TAG, "ApiResponse.isSuccess(): " + apiResponse.isSuccess());
-                        Log.d(TAG, "ApiResponse.hasData(): " + apiResponse.hasData());
+                        DiagLog.d(TAG, "ApiResponse.isSuccess(): {}", apiResponse.isSuccess());
+                        DiagLog.d(TAG, "ApiResponse.hasData(): {}", apiResponse.hasData());
                         if (apiResponse.isSuccess() && apiResponse.hasData()) {
                             JSONObject data = apiResponse.getData();
-                            Log.d(TAG, "Data object: " + data.toString());
+                            DiagLog.d(TAG, "Data object: {}", data);
 
                             // Obter giros restantes do servidor
                             spinsRemaining = data.optInt("spins_remaining", 0);
                             spinsToday = data.optInt("spins_today", 0);
+                            stateConfirmedAt = System.currentTimeMillis();
                             maxDailySpins = data.optInt("max_daily_spins", 10);
-                            Log.d(TAG, "Spins from server - remaining: " + spinsRemaining + ", today: " + spinsToday + ", max: " + maxDailySpins);
+                            DiagLog.d(TAG, "Spins from server - remaining: {}, today: {}, max: {}", spinsRemaining, spinsToday, maxDailySpins);
 
                             // Atualizar timestamp do servidor
                             long serverTimestamp = data.optLong("server_timestamp", 0);
                             if (serverTimestamp > 0) {
+                                lastServerTimestamp = serverTimestamp;
                                 NetworkTimeManager.getInstance(SpinWheelActivity.this).updateServerTime(serverTimestamp);
                             }
 
                             // Obter valores da roleta do servidor
                             try {
                                 org.json.JSONArray prizeValuesArray = data.getJSONArray("prize_values");
-                                StringBuilder prizeValuesJs = new StringBuilder("[");
-                                for (int i = 0; i < prizeValuesArray.length(); i++) {
-                                    if (i > 0) prizeValuesJs.append(",");
-                                    prizeValuesJs.append(prizeValuesArray.getInt(i));
+                                int[] prizeValues = new int[prizeValuesArray.length()];
+                                for (int i = 0; i < prizeValues.length; i++) {
+                                    prizeValues[i] = prizeValuesArray.getInt(i);
                                 }
-                                prizeValuesJs.append("]");
-
-                                // Armazenar valores para usar quando WebView carregar
-                                pendingPrizeValues = prizeValuesJs.toString();
-                                Log.d(TAG, "Prize values: " + pendingPrizeValues);
-
-                                // Se WebView já carregou, atualizar valores imediatamente
-                                if (webViewLoaded) {
-                                    Log.d(TAG, "Updating prize values immediately");
-                                    webView.evaluateJavascript("if(typeof setPrizeValues === 'function') setPrizeValues(" + pendingPrizeValues + ")", null);
-                                } else {
-                                    Log.d(TAG, "WebView not loaded yet, values will be set in onPageFinished");
+                                SpinWheelActivity.this.prizeValues = prizeValues;
+                                bridge.setPrizeValues(prizeValues);
+                                if (nativeWheelView != null) {
+                                    nativeWheelView.setPrizeValues(prizeValues);
                                 }
                             } catch (Exception e) {
-                                Log.e(TAG, "Error processing prize_values: " + e.getMessage());
+                                DiagLog.e(TAG, "Error processing prize_values: {}", e.getMessage());
                             }
 
                             // Atualizar contador (SEMPRE, independente de prize_values)
-                            if (webViewLoaded) {
-                                Log.d(TAG, "Updating counter immediately");
-                                updateSpinsCounter();
-                                // Loading is now controlled by JavaScript // Esconder loading após carregar dados
-                            } else {
-                                Log.d(TAG, "WebView not loaded yet, counter will be updated in onPageFinished");
-                            }
+                            updateSpinsCounter();
+
+                            // Status da tarefa vindo do bootstrap (sem chamar progress/stats)
+                            finishBootstrap(data.optJSONObject("task_progress"));
+                            saveSnapshot();
                         } else {
                             // Se der erro, mostrar 0 giros
-                            Log.e(TAG, "API response invalid - isSuccess: " + apiResponse.isSuccess() + ", hasData: " + apiResponse.hasData());
-                            spinsRemaining = 0;
+                            DiagLog.e(TAG, "API response invalid - isSuccess: {}, hasData: {}", apiResponse.isSuccess(), apiResponse.hasData());
+                            if (!snapshotShown) spinsRemaining = 0;
                             updateSpinsCounter();
+                            finishBootstrap(null);
                         }
                     } catch (Exception e) {
-                        Log.e(TAG, "Exception processing API response: " + e.getMessage(), e);
-                        spinsRemaining = 0;
+                        DiagLog.e(TAG, "Exception processing API response: {}", e.getMessage(), e);
+                        if (!snapshotShown) spinsRemaining = 0;
                         updateSpinsCounter();
+                        finishBootstrap(null);
                     }
                 });
             }
 
             @Override
             public void onError(String error) {
-                runOnUiThread(() -> {
-                    spinsRemaining = 0;
+                scope.post(() -> {
+                    // Sem resposta: manter o snapshot exibido, se houver
+                    if (!snapshotShown) spinsRemaining = 0;
                     updateSpinsCounter();
+                    finishBootstrap(null);
                     showToast("Erro ao carregar giros: " + error);
                 });
             }
         });
     }
 
+    /**
+     * Exibe o snapshot salvo do usuário (valores, contadores e tarefa) antes
+     * da resposta do servidor, que depois prevalece.
+     */
+    private void applySnapshot() {
+        RouletteSnapshotStore.Snapshot snapshot = RouletteSnapshotStore.getInstance(this).load(apiClient.getUserId());
+        metrics.setDimension("from_snapshot", snapshot != null);
+        if (snapshot == null) return;
+
+        DiagLog.d(TAG, "📦 Snapshot salvo há {}s", (System.currentTimeMillis() - snapshot.savedAt) / 1000);
+        snapshotShown = true;
+        lastServerTimestamp = snapshot.serverTimestamp;
+        stateConfirmedAt = snapshot.savedAt;
+        prizeValues = snapshot.prizeValues;
+        bridge.setPrizeValues(prizeValues);
+        maxDailySpins = snapshot.maxDailySpins;
+        if (snapshot.hasCounters()) {
+            spinsRemaining = snapshot.spinsRemaining;
+            spinsToday = snapshot.spinsToday;
+            updateSpinsCounter();
+        }
+        if (snapshot.taskCompleted != null) {
+            applyTaskStatus(snapshot.taskCompleted);
+        }
+    }
+
+    /**
+     * Grava o estado com o horário da última confirmação do servidor: sem
+     * revalidação (bootstrap falhou), o snapshot antigo mantém o savedAt original.
+     */
+    private void saveSnapshot() {
+        if (prizeValues == null || stateConfirmedAt == 0) return;
+        RouletteSnapshotStore.getInstance(this).save(apiClient.getUserId(), new RouletteSnapshotStore.Snapshot(
+                stateConfirmedAt, lastServerTimestamp, prizeValues,
+                spinsRemaining, spinsToday, maxDailySpins, taskCompleted));
+    }
+
+    /**
+     * Aplica o status da tarefa recebido no bootstrap. Sem o bloco task_progress
+     * (servidor antigo ou erro), cai na verificação via progress/stats.
+     */
+    private void finishBootstrap(JSONObject taskProgress) {
+        if (!bootstrapPending) return;
+        bootstrapPending = false;
+
+        if (taskProgress == null) {
+            checkTaskCompletionStatus();
+            return;
+        }
+
+        boolean completed = taskProgress.optBoolean("all_completed", false);
+        DiagLog.d(TAG, "{} Tarefa concluída (bootstrap): {}", (completed ? "✅" : "⏳"), completed);
+        String userId = apiClient.getUserId();
+        if (userId != null && !userId.isEmpty()) {
+            TaskStatusRepository.getInstance().put(userId, completed);
+        }
+        applyTaskStatus(completed);
+        startTaskStatusWatcher();
+    }
+
 
 
     /**
      * Atualiza o contador de giros no HTML
      */
     private void updateSpinsCounter() {
-        Log.d(TAG, "updateSpinsCounter called - webViewLoaded: " + webViewLoaded + ", spins: " + spinsRemaining + ", today: " + spinsToday + ", max: " + maxDailySpins);
-        if (webViewLoaded) {
-            String js = "updateSpinsCounter(" + spinsRemaining + ", " + spinsToday + ", " + maxDailySpins + ")";
-            Log.d(TAG, "Executing JS: " + js);
-            webView.evaluateJavascript(js, null);
-        } else {
-            Log.d(TAG, "WebView not loaded, skipping update");
+        bridge.setSpinsCounter(spinsRemaining, spinsToday, maxDailySpins);
+        if (!metrics.hasMark(RouletteMetrics.PHASE_SPIN_DATA_LOADED)) {
+            // Primeiro contador enviado = resposta (ou falha) do bootstrap
+            metrics.mark(RouletteMetrics.PHASE_SPIN_DATA_LOADED);
+            markInteractiveWhenReady();
         }
     }
 
@@ -466,185 +630,458 @@ public class SpinWheelActivity extends AppCompatActivity {
      * Agora usa API do servidor que decide o prêmio e valida giros
      */
     private void spinWheel() {
-        if (isSpinning || spinsRemaining <= 0) return;
+        if (spinState != SpinState.IDLE || spinsRemaining <= 0) return;
+
+        setSpinState(SpinState.REQUESTING);
+        spinRequestStartedAt = metrics.now();
+
+        // Começar a girar já: a página desacelera até o prêmio quando a API responder
+        if (SPECULATIVE_SPIN_ENABLED && nativeWheelView == null) {
+            bridge.startSpeculativeSpin();
+        }
+
+        // Chamar API do servidor para executar giro (idempotente, com novas tentativas)
+        ApiClient.ApiCallback onSpinResult = new ApiClient.ApiCallback() {
+            @Override
+            public void onSuccess(JSONObject response) {
+                metrics.recordSince(RouletteMetrics.SPIN_REQUEST, spinRequestStartedAt);
+                recordSpinAttempts();
+                try {
+                    ApiResponse apiResponse = new ApiResponse(response);
+
+                    if (apiResponse.isSuccess() && apiResponse.hasData()) {
+                        JSONObject data = apiResponse.getData();
+
+                        // Extrair dados do giro
+                        int prizeValue = data.getInt("prize_value");
+                        int prizeIndex = data.getInt("prize_index");
+                        int spinsRemainingFromServer = data.getInt("spins_remaining");
+                        int newBalance = data.getInt("new_balance");
+
+                        // Atualizar timestamp do servidor se disponível
+                        long serverTimestamp = data.optLong("server_timestamp", 0);
+                        if (serverTimestamp > 0) {
+                            lastServerTimestamp = serverTimestamp;
+                            NetworkTimeManager.getInstance(SpinWheelActivity.this).updateServerTime(serverTimestamp);
+                        }
 
-        isSpinning = true;
+                        // Atualizar giros restantes E incrementar spins_today
+                        spinsRemaining = spinsRemainingFromServer;
+                        spinsToday++; // Incrementar contador de giros hoje
+                        stateConfirmedAt = System.currentTimeMillis();
+
+                        // Atualizar saldo no SessionManager
+                        SessionManager sessionManager = SessionManager.getInstance(SpinWheelActivity.this);
+                        sessionManager.updateUserBalance(newBalance);
+                        updateSessionBalance(newBalance);
+                        DiagLog.d(TAG, "Saldo atualizado para: {}", newBalance);
+
+                        playSpin(prizeValue);
+
+                    } else {
+                        abortSpinRequest();
+                        showToast(apiResponse.getError());
+                    }
+
+                } catch (Exception e) {
+                    abortSpinRequest();
+                    showToast("Erro ao processar giro");
+                }
+            }
+
+            @Override
+            public void onError(String error) {
+                recordSpinAttempts();
+                abortSpinRequest();
+                showToast("Erro ao girar, tente novamente: " + error);
+            }
+        };
+        spinRequest = new RetryingSpinRequest(apiClient, scope, SPIN_REQUEST_DEADLINE_MS, SPIN_HEDGE_DELAY_MS,
+                onSpinResult);
+        spinRequest.start();
+    }
+
+    private void recordSpinAttempts() {
+        int attempts = spinRequest.getAttempts();
+        for (int i = 0; i < attempts; i++) {
+            metrics.increment(RouletteMetrics.COUNTER_API_REQUESTS);
+        }
+        metrics.setCounter(RouletteMetrics.COUNTER_SPIN_RETRIES,
+                metrics.getCounter(RouletteMetrics.COUNTER_SPIN_RETRIES) + attempts - 1);
+    }
+
+
+
+    /**
+     * Saldo novo vai para a sessão da página só se mudou
+     */
+    private void updateSessionBalance(int newBalance) {
+        WebBridgeDispatcher.Session session = bridge.getSession();
+        if (session != null) {
+            bridge.setSession(session.withBalance(newBalance));
+        }
+    }
+
+    /**
+     * Falha na API: voltar para idle e parar o giro especulativo, se houver
+     */
+    private void abortSpinRequest() {
+        setSpinState(SpinState.IDLE);
+        bridge.cancelSpeculativeSpin();
+    }
+
+    /**
+     * Auto-spin: liquida alguns giros à frente em UMA requisição (api/v1/spin_batch.php)
+     * e anima os prêmios um após o outro, sem esperar a rede entre eles
+     */
+    private void spinBatch() {
+        if (spinState != SpinState.IDLE || spinsRemaining <= 0) return;
+
+        setSpinState(SpinState.REQUESTING);
+        spinRequestStartedAt = metrics.now();
+        if (batchRequestId == null) {
+            batchRequestId = UUID.randomUUID().toString();
+            batchRequestCount = Math.min(spinsRemaining, AUTO_SPIN_LOOKAHEAD);
+        }
+        int count = batchRequestCount;
+        DiagLog.d(TAG, "Auto-spin: liquidando {} giros em lote ({})", count, batchRequestId);
 
-        // Chamar API do servidor para executar giro
-        apiClient.executeSpin(new ApiClient.ApiCallback() {
+        metrics.increment(RouletteMetrics.COUNTER_API_REQUESTS);
+        apiClient.executeSpinBatch(count, batchRequestId, new ApiClient.ApiCallback() {
             @Override
             public void onSuccess(JSONObject response) {
-                runOnUiThread(() -> {
+                metrics.recordSince(RouletteMetrics.SPIN_BATCH_REQUEST, spinRequestStartedAt);
+                scope.post(() -> {
                     try {
                         ApiResponse apiResponse = new ApiResponse(response);
+                        // Resposta do servidor (sucesso ou regra de negócio): a chave foi usada
+                        if (!response.optBoolean("retryable", false)) {
+                            batchRequestId = null;
+                        }
 
                         if (apiResponse.isSuccess() && apiResponse.hasData()) {
                             JSONObject data = apiResponse.getData();
+                            org.json.JSONArray prizes = data.getJSONArray("prizes");
+                            for (int i = 0; i < prizes.length(); i++) {
+                                settledSpinQueue.add(prizes.getJSONObject(i).getInt("prize_value"));
+                            }
 
-                            // Extrair dados do giro
-                            int prizeValue = data.getInt("prize_value");
-                            int prizeIndex = data.getInt("prize_index");
-                            int spinsRemainingFromServer = data.getInt("spins_remaining");
-                            int newBalance = data.getInt("new_balance");
-
-                            // Atualizar timestamp do servidor se disponível
                             long serverTimestamp = data.optLong("server_timestamp", 0);
                             if (serverTimestamp > 0) {
+                                lastServerTimestamp = serverTimestamp;
                                 NetworkTimeManager.getInstance(SpinWheelActivity.this).updateServerTime(serverTimestamp);
                             }
 
-                            // Atualizar giros restantes E incrementar spins_today
-                            spinsRemaining = spinsRemainingFromServer;
-                            spinsToday++; // Incrementar contador de giros hoje
-
-                            // Chamar função JavaScript para animar usando o VALOR do prêmio
-                            Log.d(TAG, "Calling spin with prize_value: " + prizeValue);
-                            webView.evaluateJavascript("spin(" + prizeValue + ")", null);
-
-                            // Atualizar saldo no SessionManager
-                            SessionManager sessionManager = SessionManager.getInstance(SpinWheelActivity.this);
-                            sessionManager.updateUserBalance(newBalance);
-                            Log.d(TAG, "Saldo atualizado para: " + newBalance);
-
-                            // Mostrar mensagem de sucesso
-                            showToast("Você ganhou " + prizeValue + " pontos!");
+                            // Contadores do servidor já incluem todo o lote; a fila é descontada ao animar
+                            spinsRemaining = data.getInt("spins_remaining") + settledSpinQueue.size();
+                            spinsToday = data.optInt("spins_today", spinsToday + settledSpinQueue.size()) - settledSpinQueue.size();
+                            stateConfirmedAt = System.currentTimeMillis();
 
-                            // Atualizar contador após animação (agora com spinsToday atualizado)
-                            new Handler(Looper.getMainLooper()).postDelayed(() -> {
-                                isSpinning = false;
-                                updateSpinsCounter();
-                            }, 5000); // 5 segundos para completar animação + bounce
+                            int newBalance = data.getInt("new_balance");
+                            SessionManager.getInstance(SpinWheelActivity.this).updateUserBalance(newBalance);
+                            updateSessionBalance(newBalance);
+                            DiagLog.i(TAG, "Lote liquidado: {} giros, saldo {}", settledSpinQueue.size(), newBalance);
 
+                            setSpinState(SpinState.IDLE);
+                            playNextSettledSpin();
                         } else {
-                            isSpinning = false;
+                            setSpinState(SpinState.IDLE);
                             showToast(apiResponse.getError());
                         }
-
                     } catch (Exception e) {
-                        isSpinning = false;
-                        showToast("Erro ao processar giro");
+                        setSpinState(SpinState.IDLE);
+                        showToast("Erro ao processar giros em lote");
                     }
                 });
             }
 
             @Override
             public void onError(String error) {
-                runOnUiThread(() -> {
-                    isSpinning = false;
-                    showToast("Erro HTTP 500: " + error);
+                scope.post(() -> {
+                    setSpinState(SpinState.IDLE);
+                    showToast("Erro no giro em lote: " + error);
                 });
             }
         });
     }
 
+    /**
+     * Anima o próximo giro já liquidado pelo servidor (sem requisição)
+     */
+    private void playNextSettledSpin() {
+        // Durante uma animação o prêmio fica na fila: já foi creditado e ainda precisa ser mostrado
+        if (spinState != SpinState.IDLE || settledSpinQueue.peek() == null) return;
+        int prizeValue = settledSpinQueue.poll();
+
+        spinsRemaining--;
+        spinsToday++;
+        playSpin(prizeValue);
+    }
+
+    /**
+     * Saindo da roleta com giros do lote ainda não animados: já foram liquidados
+     * (pontos creditados), então saem da fila e dos contadores em vez de continuar
+     * aparecendo como disponíveis
+     */
+    private void reconcileSettledSpins() {
+        int pending = settledSpinQueue.size();
+        if (pending == 0) return;
+        settledSpinQueue.clear();
+        spinsRemaining = Math.max(0, spinsRemaining - pending);
+        spinsToday += pending;
+        updateSpinsCounter();
+        DiagLog.i(TAG, "{} giros do lote liquidados sem animação ao sair", pending);
+    }
+
+    /**
+     * Anima o prêmio na página (ou no modo nativo) e libera o próximo giro ao final
+     */
+    private void playSpin(int prizeValue) {
+        // Chamar função JavaScript para animar usando o VALOR do prêmio
+        DiagLog.d(TAG, "Calling spin with prize_value: {}", prizeValue);
+        metrics.increment(RouletteMetrics.COUNTER_SPINS);
+        bridge.spin(prizeValue);
+        if (nativeWheelView != null) {
+            // Modo nativo: a view anima e avisa o HTML ao terminar (+300ms como no canvas)
+            nativeWheelView.spin(prizeValue, value ->
+                    scope.postDelayed(() -> bridge.spinFinished(value), 300));
+        }
+
+        // Mostrar mensagem de sucesso
+        showToast("Você ganhou " + prizeValue + " pontos!");
+
+        // O giro é liberado pelo onSpinComplete da página; o watchdog cobre a falta dele
+        setSpinState(SpinState.ANIMATING);
+        spinAnimationStartedAt = metrics.now();
+        scope.removeCallbacks(spinWatchdog);
+        scope.postDelayed(spinWatchdog, SPIN_ANIMATION_WATCHDOG_MS);
+    }
+
+    /**
+     * Animação terminou: atualizar contador (agora com spinsToday atualizado) e liberar o próximo giro
+     */
+    private void settleSpin() {
+        scope.removeCallbacks(spinWatchdog);
+        metrics.recordSince(RouletteMetrics.SPIN_ANIMATION, spinAnimationStartedAt);
+        setSpinState(SpinState.SETTLED);
+        updateSpinsCounter();
+        setSpinState(SpinState.IDLE);
+    }
+
+    private void setSpinState(SpinState newState) {
+        if (spinState == newState) return;
+        DiagLog.i(TAG, "Giro: {} → {}", spinState, newState);
+        spinState = newState;
+    }
+
     /**
      * Helper para log (Toast removido)
      */
     private void showToast(String message) {
-        Log.d(TAG, message);
+        DiagLog.d(TAG, message);
     }
 
     /**
      * Interface JavaScript para comunicação com WebView
      */
-    public class WebAppInterface {
+    public static class WebAppInterface implements WebBridgeDispatcher.PageListener {
+        // Fraca: a porta do WebMessagePort e o WebView seguram a interface, não a activity
+        private final WeakReference<SpinWheelActivity> activityRef;
+
+        WebAppInterface(SpinWheelActivity activity) {
+            this.activityRef = new WeakReference<>(activity);
+        }
 
         @JavascriptInterface
         public void onSpinRequested() {
-            runOnUiThread(() -> {
-                if (spinsRemaining > 0) {
-                    spinWheel();
+            SpinWheelActivity activity = activityRef.get();
+            if (activity == null) return;
+            activity.scope.post(() -> {
+                if (!activity.settledSpinQueue.isEmpty()) {
+                    // Giro já liquidado por um lote de auto-spin: só animar
+                    activity.playNextSettledSpin();
+                } else if (activity.spinsRemaining > 0) {
+                    activity.spinWheel();
+                } else {
+                    activity.showToast("Você não tem mais giros disponíveis hoje!");
+                }
+            });
+        }
+
+        @JavascriptInterface
+        public void onAutoSpinRequested() {
+            SpinWheelActivity activity = activityRef.get();
+            if (activity == null) return;
+            activity.scope.post(() -> {
+                if (!activity.settledSpinQueue.isEmpty()) {
+                    activity.playNextSettledSpin();
+                } else if (activity.spinsRemaining > 0) {
+                    activity.spinBatch();
                 } else {
-                    showToast("Você não tem mais giros disponíveis hoje!");
+                    activity.showToast("Você não tem mais giros disponíveis hoje!");
                 }
             });
         }
 
         @JavascriptInterface
         public void onSpinComplete(int points) {
-            // Não faz nada - a lógica agora é toda no servidor
-            // O callback de sucesso da API já atualiza tudo
+            SpinWheelActivity activity = activityRef.get();
+            if (activity == null) return;
+            // Pontos já foram creditados pelo servidor; aqui só termina a animação
+            activity.scope.post(() -> {
+                if (activity.spinState == SpinState.ANIMATING) {
+                    activity.settleSpin();
+                }
+            });
         }
 
         @JavascriptInterface
         public void onBackPressed() {
-            runOnUiThread(() -> finish());
+            SpinWheelActivity activity = activityRef.get();
+            if (activity == null) return;
+            activity.scope.post(activity::finish);
         }
 
         @JavascriptInterface
         public String getUserId() {
+            SpinWheelActivity activity = activityRef.get();
+            if (activity == null) return "";
             // Tentar apiClient primeiro (funciona), fallback para SessionManager
             try {
-                ApiClient api = ApiClient.getInstance(SpinWheelActivity.this);
+                ApiClient api = ApiClient.getInstance(activity);
                 String userId = api.getUserId();
                 if (userId != null && !userId.isEmpty()) {
-                    Log.d(TAG, "getUserId() via apiClient - ID: " + userId);
+                    DiagLog.d(TAG, "getUserId() via apiClient - ID: {}", userId);
                     return userId;
                 }
             } catch (Exception e) {
-                Log.e(TAG, "getUserId() erro apiClient: " + e.getMessage());
+                DiagLog.e(TAG, "getUserId() erro apiClient: {}", e.getMessage());
             }
             // Fallback para SessionManager
-            SessionManager sessionManager = SessionManager.getInstance(SpinWheelActivity.this);
+            SessionManager sessionManager = SessionManager.getInstance(activity);
             String userId = sessionManager.getUserId();
-            Log.d(TAG, "getUserId() via SessionManager - ID: " + userId);
+            DiagLog.d(TAG, "getUserId() via SessionManager - ID: {}", userId);
             return userId != null ? userId : "";
         }
 
         @JavascriptInterface
         public String getEmail() {
-            SessionManager sessionManager = SessionManager.getInstance(SpinWheelActivity.this);
+            SpinWheelActivity activity = activityRef.get();
+            if (activity == null) return "";
+            SessionManager sessionManager = SessionManager.getInstance(activity);
             String email = sessionManager.getEmail();
-            Log.d(TAG, "getEmail() via SessionManager - Email: " + email);
+            DiagLog.d(TAG, "getEmail() via SessionManager - Email: {}", email);
             return email != null ? email : "";
         }
 
         @JavascriptInterface
         public void openAdWebView() {
-            Log.d(TAG, "openAdWebView() chamado - Abrindo página de tarefas");
-            runOnUiThread(() -> {
+            SpinWheelActivity activity = activityRef.get();
+            if (activity == null) return;
+            DiagLog.d(TAG, "openAdWebView() chamado - Abrindo página de tarefas");
+            activity.scope.post(() -> {
                 try {
                     // Obter userId via apiClient
-                    ApiClient api = ApiClient.getInstance(SpinWheelActivity.this);
+                    ApiClient api = ApiClient.getInstance(activity);
                     String userId = api.getUserId();
                     if (userId == null || userId.isEmpty()) {
-                        SessionManager sm = SessionManager.getInstance(SpinWheelActivity.this);
+                        SessionManager sm = SessionManager.getInstance(activity);
                         userId = sm.getUserId();
                     }
 
-                    // Montar URL com userId se disponível
-                    String baseUrl = "https://youngmoney-bot-production-110d.up.railway.app/";
+                    // O usuário vai fazer a tarefa: forçar nova verificação ao voltar
                     if (userId != null && !userId.isEmpty()) {
-                        baseUrl += "?user_id=" + userId;
+                        TaskStatusRepository.getInstance().invalidate(userId);
                     }
 
-                    Log.d(TAG, "✅ Abrindo URL: " + baseUrl);
-                    Intent browserIntent = new Intent(Intent.ACTION_VIEW, Uri.parse(baseUrl));
-                    browserIntent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
-                    startActivity(browserIntent);
+                    activity.taskPageLauncher.launch(userId);
                 } catch (Exception e) {
-                    Log.e(TAG, "❌ Erro ao abrir página de tarefas: " + e.getMessage());
+                    DiagLog.e(TAG, "❌ Erro ao abrir página de tarefas: {}", e.getMessage());
                     try {
-                        String fallbackUrl = "https://youngmoney-bot-production-110d.up.railway.app/";
-                        Intent browserIntent = new Intent(Intent.ACTION_VIEW, Uri.parse(fallbackUrl));
+                        Intent browserIntent = new Intent(Intent.ACTION_VIEW, Uri.parse(TaskPageLauncher.TASK_PAGE_URL));
                         browserIntent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
-                        startActivity(browserIntent);
+                        activity.startActivity(browserIntent);
                     } catch (Exception ex) {
-                        Log.e(TAG, "❌ Erro fatal ao abrir página: " + ex.getMessage());
+                        DiagLog.e(TAG, "❌ Erro fatal ao abrir página: {}", ex.getMessage());
                     }
                 }
             });
         }
     }
 
+    /**
+     * Estados do giro: idle → requesting (API) → animating (página) → settled → idle
+     */
+    private enum SpinState {
+        IDLE,
+        REQUESTING,
+        ANIMATING,
+        SETTLED
+    }
+
     // Método addPointsToUser removido - a API /api/v1/spin.php já adiciona os pontos automaticamente
 
     @Override
     protected void onResume() {
         super.onResume();
-        Log.d(TAG, "🔄 onResume - Verificando status da tarefa novamente...");
-        // Verificar novamente quando voltar para a tela
-        checkTaskCompletionStatus();
+        // Sem polling: o long-poll avisa quando a tarefa mudar (na abertura, após o bootstrap)
+        resumed = true;
+        startTaskStatusWatcher();
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        resumed = false;
+        taskStatusWatcher.stop();
+        reconcileSettledSpins();
+        saveSnapshot();
+    }
+
+    @Override
+    protected void onDestroy() {
+        DiagLog.i(TAG, "Sessão encerrada - envios da ponte para a página: {}", bridge.getEvaluationCount());
+        int evaluations = bridge.getEvaluationCount();
+        long spins = metrics.getCounter(RouletteMetrics.COUNTER_SPINS);
+        metrics.setCounter(RouletteMetrics.COUNTER_BRIDGE_EVALUATIONS, evaluations);
+        if (spins > 0) {
+            // Chamadas da ponte por giro, sem contar as da abertura
+            long perSpin = (evaluations - evaluationsAtInteractive + spins - 1) / spins;
+            metrics.setCounter(RouletteMetrics.COUNTER_BRIDGE_EVALUATIONS_PER_SPIN, perSpin);
+        }
+        metrics.end();
+        scope.cancel();
+        taskPageLauncher.unbind();
+        bridge.close();
+        SpinWheelWebViewPool pool = SpinWheelWebViewPool.getInstance(this);
+        if (usingPooledWebView) {
+            // Devolver ao pool: a página é recarregada para a próxima abertura
+            pool.release(webView);
+        } else {
+            destroyWebView();
+            // Deixar uma instância quente pronta para a próxima abertura
+            pool.prewarm();
+        }
+        if (BuildConfig.DEBUG) {
+            RetentionWatcher.watch(this);
+        }
+        super.onDestroy();
+    }
+
+    /**
+     * Desmonta o WebView próprio da activity: sem isso a interface "Android"
+     * e os clients seguem referenciando a activity até o Chromium liberar a view
+     */
+    private void destroyWebView() {
+        ViewGroup parent = (ViewGroup) webView.getParent();
+        if (parent != null) {
+            parent.removeView(webView);
+        }
+        webView.stopLoading();
+        webView.removeJavascriptInterface("Android");
+        webView.setWebChromeClient(null);
+        webView.setWebViewClient(new android.webkit.WebViewClient());
+        webView.destroy();
     }
 
     @Override
@@ -0,0 +1,108 @@
+package com.youngmoney2;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.content.pm.PackageInfo;
+import android.webkit.WebView;
+
+import com.youngmoney2.utils.DiagLog;
+
+import java.io.InputStream;
+import java.security.MessageDigest;
+
+/**
+ * SpinWheelAssetVersion - Versionamento dos assets da roleta por hash de conteúdo
+ *
+ * O cache do WebView só é limpo quando o hash dos arquivos em
+ * assets/spin_wheel muda. O hash é recalculado apenas quando o APK é
+ * atualizado (lastUpdateTime), então aberturas normais não leem os assets.
+ */
+public class SpinWheelAssetVersion {
+    private static final String TAG = "SpinWheelAssetVersion";
+    private static final String PREFS_NAME = "spin_wheel_assets";
+    private static final String KEY_HASH = "content_hash";
+    private static final String KEY_APK_UPDATE_TIME = "apk_update_time";
+    private static final String KEY_CACHED_HASH = "cached_hash";
+
+    // Arquivos locais que compõem a página da roleta
+    private static final String[] ASSET_FILES = {
+            "spin_wheel/index.html"
+    };
+
+    private SpinWheelAssetVersion() {
+    }
+
+    /**
+     * Limpa o cache do WebView somente se os assets mudaram desde a última vez
+     * que a página foi carregada com cache.
+     *
+     * @return true se o cache foi invalidado (próximo carregamento será frio)
+     */
+    public static boolean invalidateCacheIfChanged(Context context, WebView webView) {
+        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        String hash = currentHash(context, prefs);
+        if (hash == null) {
+            // Sem hash não há como garantir a versão: comportamento antigo
+            webView.clearCache(true);
+            return true;
+        }
+
+        if (hash.equals(prefs.getString(KEY_CACHED_HASH, null))) {
+            DiagLog.d(TAG, "Assets inalterados ({}), mantendo cache", hash.substring(0, 12));
+            return false;
+        }
+
+        DiagLog.d(TAG, "Assets mudaram ({}), limpando cache do WebView", hash.substring(0, 12));
+        webView.clearCache(true);
+        prefs.edit().putString(KEY_CACHED_HASH, hash).apply();
+        return true;
+    }
+
+    private static String currentHash(Context context, SharedPreferences prefs) {
+        long apkUpdateTime = 0;
+        try {
+            PackageInfo info = context.getPackageManager().getPackageInfo(context.getPackageName(), 0);
+            apkUpdateTime = info.lastUpdateTime;
+        } catch (Exception e) {
+            DiagLog.w(TAG, "Não foi possível obter lastUpdateTime: {}", e.getMessage());
+        }
+
+        String storedHash = prefs.getString(KEY_HASH, null);
+        if (storedHash != null && apkUpdateTime != 0 && prefs.getLong(KEY_APK_UPDATE_TIME, 0) == apkUpdateTime) {
+            return storedHash;
+        }
+
+        String hash = hashAssets(context);
+        if (hash != null) {
+            prefs.edit()
+                    .putString(KEY_HASH, hash)
+                    .putLong(KEY_APK_UPDATE_TIME, apkUpdateTime)
+                    .apply();
+        }
+        return hash;
+    }
+
+    private static String hashAssets(Context context) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[8192];
+            for (String file : ASSET_FILES) {
+                try (InputStream in = context.getAssets().open(file)) {
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        digest.update(buffer, 0, read);
+                    }
+                }
+            }
+
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (Exception e) {
+            DiagLog.e(TAG, "Erro ao calcular hash dos assets: {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.youngmoney2;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.ObjectAnimator;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RadialGradient;
+import android.graphics.RectF;
+import android.graphics.Shader;
+import android.graphics.Typeface;
+import android.view.Choreographer;
+import android.view.View;
+import android.view.animation.DecelerateInterpolator;
+
+import com.youngmoney2.utils.DiagLog;
+
+/**
+ * SpinWheelView - Modo de renderização nativo da roleta
+ *
+ * Desenha os segmentos (a partir dos prize_values do servidor) UMA vez num
+ * bitmap em cache e gira a própria view numa camada de hardware, sem
+ * redesenhar gradientes e sombras a cada frame como o canvas do HTML.
+ * Usa a mesma geometria e as mesmas cores de drawWheel()/spin() da página.
+ */
+public class SpinWheelView extends View {
+    private static final String TAG = "SpinWheelView";
+    private static final long SPIN_DURATION_MS = 3000;
+    private static final long FRAME_BUDGET_NANOS = 16666667;
+
+    // Mesmas cores de segmentColors no index.html: { color, darkColor, glowColor }
+    private static final int[][] SEGMENT_COLORS = {
+            {0xFFDC2626, 0xFF7F1D1D, 0x80DC2626},
+            {0xFF0891B2, 0xFF164E63, 0x800891B2},
+            {0xFFCA8A04, 0xFF713F12, 0x80CA8A04},
+            {0xFF16A34A, 0xFF14532D, 0x8016A34A},
+            {0xFFDB2777, 0xFF831843, 0x80DB2777},
+            {0xFF8B5CF6, 0xFF5B21B6, 0x808B5CF6},
+            {0xFFF97316, 0xFF9A3412, 0x80F97316},
+            {0xFF10B981, 0xFF065F46, 0x8010B981}
+    };
+
+    public interface SpinListener {
+        void onSpinFinished(int prizeValue);
+    }
+
+    private final Paint bitmapPaint = new Paint(Paint.FILTER_BITMAP_FLAG | Paint.ANTI_ALIAS_FLAG);
+    private int[] prizeValues = {100, 250, 500, 750, 1000, 1500, 2000, 5000};
+    private Bitmap wheelBitmap;
+    private ObjectAnimator animator;
+
+    // Medição de tempo de frame durante o giro
+    private long lastFrameNanos;
+    private long frameCount;
+    private long jankFrames;
+    private long worstFrameNanos;
+    private final Choreographer.FrameCallback frameMeter = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            if (lastFrameNanos != 0) {
+                long delta = frameTimeNanos - lastFrameNanos;
+                frameCount++;
+                worstFrameNanos = Math.max(worstFrameNanos, delta);
+                if (delta > FRAME_BUDGET_NANOS * 3 / 2) jankFrames++;
+            }
+            lastFrameNanos = frameTimeNanos;
+            if (animator != null && animator.isRunning()) {
+                Choreographer.getInstance().postFrameCallback(this);
+            }
+        }
+    };
+
+    public SpinWheelView(Context context) {
+        super(context);
+    }
+
+    public void setPrizeValues(int[] prizeValues) {
+        if (prizeValues == null || prizeValues.length == 0) return;
+        this.prizeValues = prizeValues;
+        recycleBitmap();
+        invalidate();
+    }
+
+    /**
+     * Gira 2 voltas completas e para no segmento do prêmio (mesma lógica de spin() no HTML)
+     */
+    public void spin(int prizeValue, SpinListener listener) {
+        int segmentIndex = -1;
+        for (int i = 0; i < prizeValues.length; i++) {
+            if (prizeValues[i] == prizeValue) {
+                segmentIndex = i;
+                break;
+            }
+        }
+        if (segmentIndex == -1) {
+            DiagLog.e(TAG, "Valor {} não existe na roleta", prizeValue);
+            listener.onSpinFinished(prizeValue);
+            return;
+        }
+
+        float segmentAngle = 360f / prizeValues.length;
+        float targetPosition = -(segmentIndex * segmentAngle + segmentAngle / 2);
+        float finalRotation = -720f + targetPosition;
+
+        if (animator != null) animator.cancel();
+        setLayerType(LAYER_TYPE_HARDWARE, null);
+        animator = ObjectAnimator.ofFloat(this, "rotation", 0f, finalRotation);
+        animator.setDuration(SPIN_DURATION_MS);
+        // Equivalente ao easing 1 - (1 - t)^3 do HTML
+        animator.setInterpolator(new DecelerateInterpolator(1.5f));
+        animator.addListener(new AnimatorListenerAdapter() {
+            @Override
+            public void onAnimationEnd(Animator animation) {
+                setRotation(targetPosition);
+                setLayerType(LAYER_TYPE_NONE, null);
+                logFrameStats();
+                listener.onSpinFinished(prizeValue);
+            }
+        });
+
+        lastFrameNanos = 0;
+        frameCount = 0;
+        jankFrames = 0;
+        worstFrameNanos = 0;
+        animator.start();
+        Choreographer.getInstance().postFrameCallback(frameMeter);
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        recycleBitmap();
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        if (getWidth() == 0 || getHeight() == 0) return;
+        if (wheelBitmap == null) {
+            wheelBitmap = renderWheel(getWidth(), getHeight());
+        }
+        canvas.drawBitmap(wheelBitmap, 0, 0, bitmapPaint);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        if (animator != null) animator.cancel();
+        recycleBitmap();
+    }
+
+    private Bitmap renderWheel(int width, int height) {
+        Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+
+        float centerX = width / 2f;
+        float centerY = height / 2f;
+        // Canvas do HTML: raio 165 num canvas de 350
+        float radius = Math.min(width, height) * 165f / 350f;
+        float scale = radius / 165f;
+        RectF oval = new RectF(centerX - radius, centerY - radius, centerX + radius, centerY + radius);
+        float segmentAngle = 360f / prizeValues.length;
+
+        Paint fill = new Paint(Paint.ANTI_ALIAS_FLAG);
+        Paint stroke = new Paint(Paint.ANTI_ALIAS_FLAG);
+        stroke.setStyle(Paint.Style.STROKE);
+        Paint text = new Paint(Paint.ANTI_ALIAS_FLAG);
+        text.setColor(Color.WHITE);
+        text.setTextAlign(Paint.Align.CENTER);
+        text.setTypeface(Typeface.create(Typeface.SANS_SERIF, Typeface.BOLD));
+        text.setTextSize(32f * scale);
+
+        for (int i = 0; i < prizeValues.length; i++) {
+            int[] colors = SEGMENT_COLORS[i % SEGMENT_COLORS.length];
+            float startAngle = i * segmentAngle - 90f;
+
+            fill.setShader(new RadialGradient(centerX, centerY, radius,
+                    new int[]{colors[0], colors[1], Color.BLACK}, new float[]{0f, 0.7f, 1f},
+                    Shader.TileMode.CLAMP));
+            canvas.drawArc(oval, startAngle, segmentAngle, true, fill);
+
+            stroke.setColor(0xFF1E1B4B);
+            stroke.setStrokeWidth(3f * scale);
+            canvas.drawArc(oval, startAngle, segmentAngle, true, stroke);
+
+            double startRad = Math.toRadians(startAngle);
+            stroke.setColor(0xFF8B5CF6);
+            stroke.setStrokeWidth(1.5f * scale);
+            stroke.setShadowLayer(5f * scale, 0, 0, colors[2]);
+            canvas.drawLine(centerX, centerY,
+                    centerX + radius * (float) Math.cos(startRad),
+                    centerY + radius * (float) Math.sin(startRad), stroke);
+            stroke.clearShadowLayer();
+
+            canvas.save();
+            canvas.translate(centerX, centerY);
+            canvas.rotate(startAngle + segmentAngle / 2);
+            text.setShadowLayer(15f * scale, 0, 0, colors[2]);
+            float baseline = -(text.descent() + text.ascent()) / 2;
+            canvas.drawText(String.valueOf(prizeValues[i]), radius * 0.68f, baseline, text);
+            canvas.restore();
+        }
+
+        stroke.setColor(0xFF0A0E27);
+        stroke.setStrokeWidth(2f * scale);
+        canvas.drawCircle(centerX, centerY, radius, stroke);
+        return bitmap;
+    }
+
+    private void recycleBitmap() {
+        if (wheelBitmap != null) {
+            wheelBitmap.recycle();
+            wheelBitmap = null;
+        }
+    }
+
+    private void logFrameStats() {
+        if (frameCount == 0) return;
+        DiagLog.d(TAG, "Giro nativo: {} frames, {} acima do orçamento, pior frame {}ms",
+                frameCount, jankFrames, worstFrameNanos / 1000000f);
+    }
+}
@@ -0,0 +1,356 @@
+package com.youngmoney2;
+
+import android.annotation.SuppressLint;
+import android.app.Activity;
+import android.app.Application;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.MutableContextWrapper;
+import android.content.res.Configuration;
+import android.os.Bundle;
+import android.os.Looper;
+import android.view.ViewGroup;
+import android.webkit.JavascriptInterface;
+import android.webkit.WebResourceRequest;
+import android.webkit.WebResourceResponse;
+import android.webkit.WebSettings;
+import android.webkit.WebView;
+import android.webkit.WebViewClient;
+
+import androidx.webkit.WebViewAssetLoader;
+
+import com.youngmoney2.api.ApiClient;
+import com.youngmoney2.utils.DiagLog;
+import com.youngmoney2.utils.SessionManager;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * SpinWheelWebViewPool - WebView da roleta pré-aquecido e reutilizável
+ *
+ * Mantém (no máximo) um WebView no escopo do app, criado quando a UI thread
+ * fica ociosa, já com a interface "Android" registrada e com
+ * spin_wheel/index.html carregado. A SpinWheelActivity pega a instância
+ * quente ao abrir e a devolve ao sair; a página é recarregada em segundo
+ * plano para a próxima abertura. Sob pressão de memória a instância ociosa
+ * é destruída.
+ *
+ * O WebView ocioso usa o mesmo DPI da roleta (contexto de configuração da
+ * SpinWheelActivity), então a página não muda de densidade ao ser entregue.
+ * Enquanto oculta, a página não carrega a tag de anúncios: ela só entra
+ * quando a activity envia a sessão.
+ *
+ * Uso: SpinWheelWebViewPool.install(application) no Application.onCreate
+ * pré-aquece na primeira tela do processo; sem isso só a segunda abertura
+ * da roleta usa o pool.
+ */
+public class SpinWheelWebViewPool implements ComponentCallbacks2 {
+    private static final String TAG = "SpinWheelWebViewPool";
+    // Assets servidos por WebViewAssetLoader numa origem https (não file://): a ponte
+    // pode enviar a porta só para esta origem
+    static final String PAGE_ORIGIN = "https://" + WebViewAssetLoader.DEFAULT_DOMAIN;
+    static final String PAGE_URL = PAGE_ORIGIN + "/assets/spin_wheel/index.html";
+    private static WebViewAssetLoader assetLoader;
+
+    private static SpinWheelWebViewPool instance;
+
+    private final Context appContext;
+    // Contexto do WebView fora da activity: app com o DPI da roleta
+    private Context idleBaseContext;
+    private final WebResourceCache resourceCache;
+    private WebView idleWebView;
+    private MutableContextWrapper idleContext;
+    private PooledBridge idleBridge;
+    private boolean pageLoaded;
+    private boolean prewarmScheduled;
+
+    // Instância entregue à activity (no máximo uma)
+    private WebView acquiredWebView;
+    private MutableContextWrapper acquiredContext;
+    private PooledBridge acquiredBridge;
+
+    public static synchronized SpinWheelWebViewPool getInstance(Context context) {
+        if (instance == null) {
+            instance = new SpinWheelWebViewPool(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Carregador dos assets do app em PAGE_ORIGIN/assets/ (compartilhado pelo pool e pela activity)
+     */
+    static synchronized WebViewAssetLoader assetLoader(Context context) {
+        if (assetLoader == null) {
+            assetLoader = new WebViewAssetLoader.Builder()
+                    .addPathHandler("/assets/", new WebViewAssetLoader.AssetsPathHandler(
+                            context.getApplicationContext()))
+                    .build();
+        }
+        return assetLoader;
+    }
+
+    private SpinWheelWebViewPool(Context appContext) {
+        this.appContext = appContext;
+        this.resourceCache = WebResourceCache.getInstance(appContext);
+        appContext.registerComponentCallbacks(this);
+    }
+
+    /**
+     * Pré-aquece quando a primeira tela do processo (fora a roleta) aparecer,
+     * depois do primeiro frame dela: a abertura da roleta já encontra o WebView
+     * quente sem atrasar o início do app. Chamar no Application.onCreate.
+     */
+    public static void install(Application application) {
+        application.registerActivityLifecycleCallbacks(new Application.ActivityLifecycleCallbacks() {
+            @Override
+            public void onActivityResumed(Activity activity) {
+                application.unregisterActivityLifecycleCallbacks(this);
+                if (!(activity instanceof SpinWheelActivity)) {
+                    getInstance(application).prewarm();
+                }
+            }
+
+            @Override
+            public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+            }
+
+            @Override
+            public void onActivityStarted(Activity activity) {
+            }
+
+            @Override
+            public void onActivityPaused(Activity activity) {
+            }
+
+            @Override
+            public void onActivityStopped(Activity activity) {
+            }
+
+            @Override
+            public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+            }
+
+            @Override
+            public void onActivityDestroyed(Activity activity) {
+            }
+        });
+    }
+
+    /**
+     * Agenda a criação do WebView para quando a UI thread estiver ociosa.
+     * Deve ser chamado na UI thread.
+     */
+    public void prewarm() {
+        if (idleWebView != null || prewarmScheduled) return;
+        prewarmScheduled = true;
+        Looper.myQueue().addIdleHandler(() -> {
+            prewarmScheduled = false;
+            if (idleWebView == null) {
+                createIdleWebView();
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Entrega a instância quente para a activity, ou null se não houver.
+     * A activity deve chamar {@link #attach} e, ao sair, {@link #release}.
+     */
+    public WebView acquire(Context activityContext) {
+        if (idleWebView == null || acquiredWebView != null) {
+            DiagLog.d(TAG, "Nenhum WebView quente disponível");
+            return null;
+        }
+
+        acquiredWebView = idleWebView;
+        acquiredContext = idleContext;
+        acquiredBridge = idleBridge;
+        acquiredContext.setBaseContext(activityContext);
+
+        idleWebView = null;
+        idleContext = null;
+        idleBridge = null;
+        DiagLog.d(TAG, "WebView quente entregue (página carregada: {})", pageLoaded);
+        return acquiredWebView;
+    }
+
+    /**
+     * Indica se a instância entregue já terminou de carregar a página
+     */
+    public boolean isPageLoaded(WebView webView) {
+        return webView == acquiredWebView && pageLoaded;
+    }
+
+    /**
+     * Liga a interface JavaScript da activity à instância entregue
+     */
+    public void attach(WebView webView, SpinWheelActivity.WebAppInterface target) {
+        if (webView == acquiredWebView && acquiredBridge != null) {
+            acquiredBridge.target = new WeakReference<>(target);
+        }
+    }
+
+    /**
+     * Devolve a instância ao pool: desliga da activity e recarrega a página
+     * para limpar o estado da sessão anterior.
+     */
+    public void release(WebView webView) {
+        if (webView != acquiredWebView) return;
+
+        ViewGroup parent = (ViewGroup) webView.getParent();
+        if (parent != null) {
+            parent.removeView(webView);
+        }
+        acquiredBridge.target = null;
+        acquiredContext.setBaseContext(idleBaseContext);
+        webView.setWebChromeClient(null);
+
+        idleWebView = webView;
+        idleContext = acquiredContext;
+        idleBridge = acquiredBridge;
+        acquiredWebView = null;
+        acquiredContext = null;
+        acquiredBridge = null;
+
+        loadPage(idleWebView);
+        DiagLog.d(TAG, "WebView devolvido ao pool");
+    }
+
+    @SuppressLint({"SetJavaScriptEnabled", "JavascriptInterface"})
+    private void createIdleWebView() {
+        long startedAt = System.nanoTime();
+        idleBaseContext = SpinWheelActivity.createRouletteContext(appContext);
+        idleContext = new MutableContextWrapper(idleBaseContext);
+        idleWebView = new WebView(idleContext);
+        idleBridge = new PooledBridge(appContext);
+
+        SpinWheelAssetVersion.invalidateCacheIfChanged(appContext, idleWebView);
+
+        WebSettings webSettings = idleWebView.getSettings();
+        webSettings.setJavaScriptEnabled(true);
+        webSettings.setDomStorageEnabled(true);
+        webSettings.setAllowFileAccess(false);
+        webSettings.setAllowContentAccess(true);
+        webSettings.setCacheMode(WebSettings.LOAD_DEFAULT);
+        idleWebView.addJavascriptInterface(idleBridge, "Android");
+
+        loadPage(idleWebView);
+        DiagLog.d(TAG, "WebView pré-aquecido criado em {}ms", (System.nanoTime() - startedAt) / 1000000);
+    }
+
+    private void loadPage(WebView webView) {
+        pageLoaded = false;
+        webView.setWebViewClient(new WebViewClient() {
+            @Override
+            public WebResourceResponse shouldInterceptRequest(WebView view, WebResourceRequest request) {
+                WebResourceResponse asset = assetLoader(appContext).shouldInterceptRequest(request.getUrl());
+                if (asset != null) return asset;
+                WebResourceResponse cached = resourceCache.intercept(request);
+                return cached != null ? cached : super.shouldInterceptRequest(view, request);
+            }
+
+            @Override
+            public void onPageFinished(WebView view, String url) {
+                super.onPageFinished(view, url);
+                pageLoaded = true;
+            }
+        });
+        webView.loadUrl(PAGE_URL);
+    }
+
+    private void destroyIdleWebView() {
+        if (idleWebView == null) return;
+        idleWebView.removeJavascriptInterface("Android");
+        idleWebView.destroy();
+        idleWebView = null;
+        idleContext = null;
+        idleBridge = null;
+        DiagLog.d(TAG, "WebView ocioso destruído para liberar memória");
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        if (level == TRIM_MEMORY_RUNNING_LOW || level == TRIM_MEMORY_RUNNING_CRITICAL
+                || level >= TRIM_MEMORY_BACKGROUND) {
+            destroyIdleWebView();
+        }
+    }
+
+    @Override
+    public void onLowMemory() {
+        destroyIdleWebView();
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+    }
+
+    /**
+     * Interface "Android" registrada uma única vez no WebView do pool.
+     * Encaminha para a WebAppInterface da activity atual; sem activity,
+     * só responde aos getters de sessão (usados no carregamento da página).
+     */
+    static final class PooledBridge {
+        private final Context appContext;
+        // Fraca: uma activity que não devolveu o WebView não fica presa ao pool
+        volatile WeakReference<SpinWheelActivity.WebAppInterface> target;
+
+        PooledBridge(Context appContext) {
+            this.appContext = appContext;
+        }
+
+        private SpinWheelActivity.WebAppInterface target() {
+            WeakReference<SpinWheelActivity.WebAppInterface> ref = target;
+            return ref != null ? ref.get() : null;
+        }
+
+        @JavascriptInterface
+        public void onSpinRequested() {
+            SpinWheelActivity.WebAppInterface t = target();
+            if (t != null) t.onSpinRequested();
+        }
+
+        @JavascriptInterface
+        public void onAutoSpinRequested() {
+            SpinWheelActivity.WebAppInterface t = target();
+            if (t != null) t.onAutoSpinRequested();
+        }
+
+        @JavascriptInterface
+        public void onSpinComplete(int points) {
+            SpinWheelActivity.WebAppInterface t = target();
+            if (t != null) t.onSpinComplete(points);
+        }
+
+        @JavascriptInterface
+        public void onBackPressed() {
+            SpinWheelActivity.WebAppInterface t = target();
+            if (t != null) t.onBackPressed();
+        }
+
+        @JavascriptInterface
+        public String getUserId() {
+            SpinWheelActivity.WebAppInterface t = target();
+            if (t != null) return t.getUserId();
+            String userId = ApiClient.getInstance(appContext).getUserId();
+            if (userId == null || userId.isEmpty()) {
+                userId = SessionManager.getInstance(appContext).getUserId();
+            }
+            return userId != null ? userId : "";
+        }
+
+        @JavascriptInterface
+        public String getEmail() {
+            SpinWheelActivity.WebAppInterface t = target();
+            if (t != null) return t.getEmail();
+            String email = SessionManager.getInstance(appContext).getEmail();
+            return email != null ? email : "";
+        }
+
+        @JavascriptInterface
+        public void openAdWebView() {
+            SpinWheelActivity.WebAppInterface t = target();
+            if (t != null) t.openAdWebView();
+        }
+    }
+}
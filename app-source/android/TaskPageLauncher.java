@@ -0,0 +1,149 @@
+package com.youngmoney2;
+
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.net.Uri;
+import android.os.Bundle;
+
+import androidx.browser.customtabs.CustomTabsCallback;
+import androidx.browser.customtabs.CustomTabsClient;
+import androidx.browser.customtabs.CustomTabsIntent;
+import androidx.browser.customtabs.CustomTabsServiceConnection;
+import androidx.browser.customtabs.CustomTabsSession;
+
+import com.youngmoney2.metrics.RouletteMetrics;
+import com.youngmoney2.utils.DiagLog;
+
+/**
+ * TaskPageLauncher - Abre a página de tarefas num Custom Tab pré-aquecido
+ *
+ * Enquanto a roleta está aberta, mantém uma ligação com o serviço de Custom
+ * Tabs do navegador padrão: o processo do navegador é aquecido (warmup) e a
+ * URL do usuário é antecipada (mayLaunchUrl: DNS, TLS e, se possível, a
+ * página), então o toque em "fazer tarefa" abre uma aba já conectada. Sem
+ * navegador compatível, abre com o mesmo ACTION_VIEW de antes.
+ *
+ * Deve ser usado na UI thread: bind() no onCreate, unbind() no onDestroy.
+ */
+public class TaskPageLauncher {
+    private static final String TAG = "TaskPageLauncher";
+    static final String TASK_PAGE_URL = "https://youngmoney-bot-production-110d.up.railway.app/";
+
+    private final Context context;
+    private final RouletteMetrics.Session metrics;
+    private CustomTabsServiceConnection connection;
+    private CustomTabsSession session;
+    private Uri preparedUri;
+    private final NavigationTimer navigationCallback;
+
+    /**
+     * Callback do navegador: estático e sem referência à activity, porque o
+     * processo do navegador pode segurá-lo depois que a roleta fecha
+     */
+    private static final class NavigationTimer extends CustomTabsCallback {
+        private final RouletteMetrics.Session metrics;
+        // Toque que abriu a aba; zerado quando a página termina de carregar
+        volatile long launchedAt;
+
+        NavigationTimer(RouletteMetrics.Session metrics) {
+            this.metrics = metrics;
+        }
+
+        @Override
+        public void onNavigationEvent(int navigationEvent, Bundle extras) {
+            long startedAt = launchedAt;
+            if (navigationEvent == NAVIGATION_FINISHED && startedAt > 0) {
+                launchedAt = 0;
+                metrics.recordSince(RouletteMetrics.TASK_PAGE_OPEN, startedAt);
+            }
+        }
+    }
+
+    public TaskPageLauncher(Context context, RouletteMetrics.Session metrics) {
+        this.context = context;
+        this.metrics = metrics;
+        this.navigationCallback = new NavigationTimer(metrics);
+    }
+
+    public static Uri taskPageUri(String userId) {
+        String url = TASK_PAGE_URL;
+        if (userId != null && !userId.isEmpty()) {
+            url += "?user_id=" + userId;
+        }
+        return Uri.parse(url);
+    }
+
+    /**
+     * Liga ao serviço de Custom Tabs do navegador padrão, se houver
+     */
+    public void bind() {
+        if (connection != null) return;
+        String packageName = CustomTabsClient.getPackageName(context, null);
+        if (packageName == null) {
+            DiagLog.d(TAG, "Nenhum navegador com Custom Tabs, usando intent comum");
+            return;
+        }
+
+        connection = new CustomTabsServiceConnection() {
+            @Override
+            public void onCustomTabsServiceConnected(ComponentName name, CustomTabsClient client) {
+                client.warmup(0);
+                session = client.newSession(navigationCallback);
+                if (session != null && preparedUri != null) {
+                    session.mayLaunchUrl(preparedUri, null, null);
+                }
+                DiagLog.d(TAG, "🔥 Custom Tabs aquecido ({})", packageName);
+            }
+
+            @Override
+            public void onServiceDisconnected(ComponentName name) {
+                session = null;
+            }
+        };
+        if (!CustomTabsClient.bindCustomTabsService(context, packageName, connection)) {
+            connection = null;
+        }
+    }
+
+    /**
+     * Antecipa a página de tarefas do usuário (agora ou assim que conectar)
+     */
+    public void prepare(String userId) {
+        preparedUri = taskPageUri(userId);
+        if (session != null) {
+            session.mayLaunchUrl(preparedUri, null, null);
+        }
+    }
+
+    public void launch(String userId) {
+        Uri uri = taskPageUri(userId);
+        DiagLog.d(TAG, "✅ Abrindo URL: {}", uri);
+
+        if (session != null) {
+            try {
+                navigationCallback.launchedAt = metrics.now();
+                new CustomTabsIntent.Builder(session).setShowTitle(true).build().launchUrl(context, uri);
+                return;
+            } catch (Exception e) {
+                navigationCallback.launchedAt = 0;
+                DiagLog.w(TAG, "⚠️ Custom Tab indisponível, usando intent comum: {}", e.getMessage());
+            }
+        }
+
+        Intent browserIntent = new Intent(Intent.ACTION_VIEW, uri);
+        browserIntent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
+        context.startActivity(browserIntent);
+    }
+
+    public void unbind() {
+        if (connection == null) return;
+        try {
+            context.unbindService(connection);
+        } catch (IllegalArgumentException e) {
+            // Serviço já desligado pelo sistema
+        }
+        connection = null;
+        session = null;
+    }
+}
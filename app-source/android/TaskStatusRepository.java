@@ -0,0 +1,143 @@
+package com.youngmoney2;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import com.youngmoney2.utils.DiagLog;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * TaskStatusRepository - Status da tarefa Monetag compartilhado pelo app
+ *
+ * - Chamadas simultâneas para o mesmo usuário compartilham UMA requisição em andamento
+ * - O resultado fica em cache por usuário durante um TTL curto e configurável
+ * - Os callbacks são sempre entregues na UI thread
+ */
+public class TaskStatusRepository {
+    private static final String TAG = "TaskStatusRepository";
+    public static final long DEFAULT_TTL_MS = 15000;
+
+    private static TaskStatusRepository instance;
+
+    public interface Callback {
+        void onTaskStatus(boolean taskCompleted);
+    }
+
+    private static final class CachedStatus {
+        final boolean taskCompleted;
+        final long fetchedAt;
+
+        CachedStatus(boolean taskCompleted, long fetchedAt) {
+            this.taskCompleted = taskCompleted;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+
+    private final TaskStatusResolver resolver;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Acessados apenas sob o lock da instância
+    private final Map<String, CachedStatus> cache = new HashMap<>();
+    private final Map<String, List<Callback>> inFlight = new HashMap<>();
+    private long ttlMs = DEFAULT_TTL_MS;
+
+    public static synchronized TaskStatusRepository getInstance() {
+        if (instance == null) {
+            instance = new TaskStatusRepository(new TaskStatusResolver());
+        }
+        return instance;
+    }
+
+    TaskStatusRepository(TaskStatusResolver resolver) {
+        this.resolver = resolver;
+    }
+
+    public synchronized void setTtlMs(long ttlMs) {
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * Entrega o status da tarefa do usuário: do cache se ainda válido, senão
+     * junta-se à requisição em andamento ou inicia uma nova.
+     */
+    public void getTaskStatus(String userId, Callback callback) {
+        synchronized (this) {
+            CachedStatus cached = cache.get(userId);
+            if (cached != null && SystemClock.elapsedRealtime() - cached.fetchedAt < ttlMs) {
+                DiagLog.d(TAG, "📦 Status em cache para user {}: {}", userId, cached.taskCompleted);
+                boolean taskCompleted = cached.taskCompleted;
+                mainHandler.post(() -> callback.onTaskStatus(taskCompleted));
+                return;
+            }
+
+            List<Callback> waiting = inFlight.get(userId);
+            if (waiting != null) {
+                DiagLog.d(TAG, "🔗 Reaproveitando verificação em andamento para user {}", userId);
+                waiting.add(callback);
+                return;
+            }
+
+            waiting = new ArrayList<>();
+            waiting.add(callback);
+            inFlight.put(userId, waiting);
+        }
+
+        try {
+            AppExecutors.background().execute(() -> fetch(userId));
+        } catch (RejectedExecutionException e) {
+            // Sem verificação: liberar quem espera (sem gravar no cache) para não travar as próximas
+            DiagLog.w(TAG, "⚠️ Verificação da tarefa recusada: {}", e.getMessage());
+            deliver(userId, false, false);
+        }
+    }
+
+    /**
+     * Registra um status obtido por outra fonte (ex.: bootstrap do spin.php GET)
+     */
+    public synchronized void put(String userId, boolean taskCompleted) {
+        cache.put(userId, new CachedStatus(taskCompleted, SystemClock.elapsedRealtime()));
+    }
+
+    /**
+     * Descarta o status em cache do usuário (ex.: ao sair para fazer a tarefa)
+     */
+    public synchronized void invalidate(String userId) {
+        cache.remove(userId);
+    }
+
+    private void fetch(String userId) {
+        boolean taskCompleted = false;
+        try {
+            taskCompleted = resolver.resolve(userId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            DiagLog.e(TAG, "❌ Erro ao verificar tarefa: {}", e.getMessage());
+        }
+
+        deliver(userId, taskCompleted, true);
+    }
+
+    private void deliver(String userId, boolean taskCompleted, boolean cacheResult) {
+        List<Callback> waiting;
+        synchronized (this) {
+            if (cacheResult) {
+                cache.put(userId, new CachedStatus(taskCompleted, SystemClock.elapsedRealtime()));
+            }
+            waiting = inFlight.remove(userId);
+        }
+
+        if (waiting == null) return;
+        mainHandler.post(() -> {
+            for (Callback callback : waiting) {
+                callback.onTaskStatus(taskCompleted);
+            }
+        });
+    }
+}
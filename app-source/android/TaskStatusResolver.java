@@ -0,0 +1,253 @@
+package com.youngmoney2;
+
+import com.youngmoney2.api.HttpJsonClient;
+import com.youngmoney2.api.TaskProgress;
+import com.youngmoney2.api.TaskStats;
+import com.youngmoney2.security.SecurityConfig;
+import com.youngmoney2.utils.DiagLog;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TaskStatusResolver - Verifica se a tarefa Monetag foi concluída
+ *
+ * Dispara as APIs progress e stats AO MESMO TEMPO e decide pela primeira
+ * resposta conclusiva (all_completed == true no progress, ou stats atingindo
+ * os requisitos). A outra requisição é cancelada. Todo o processo respeita
+ * um único prazo total, em vez de timeouts empilhados por conexão.
+ *
+ * Um stats que chega antes do progress e já atinge os requisitos padrão
+ * (os mesmos fixos do servidor) decide na hora. Abaixo deles fica guardado
+ * até o progress responder: só ele pode trazer requisitos diferentes, e o
+ * stats é comparado com os padrão se o progress falhar ou o prazo acabar.
+ * Se o servidor discordar de um "concluída" decidido assim, o long-poll do
+ * TaskStatusWatcher (iniciado com esse status) corrige na primeira resposta.
+ */
+public class TaskStatusResolver {
+    private static final String TAG = "TaskStatusResolver";
+
+    public static final int DEFAULT_REQUIRED_IMPRESSIONS = 20;
+    public static final int DEFAULT_REQUIRED_CLICKS = 2;
+    // Prazo total para resolver o status (progress + stats em paralelo)
+    public static final long DEFAULT_DEADLINE_MS = 10000;
+
+    // Pool compartilhado: no máximo as duas consultas de uma verificação em andamento
+    private static final ExecutorService SHARED_EXECUTOR = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "TaskStatusResolver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ExecutorService executor;
+    private final long deadlineMs;
+    private final String progressEndpoint;
+    private final String statsEndpoint;
+
+    public TaskStatusResolver() {
+        this(SHARED_EXECUTOR, DEFAULT_DEADLINE_MS,
+                SecurityConfig.getMontagProgressEndpoint(), SecurityConfig.getMontagStatsEndpoint());
+    }
+
+    public TaskStatusResolver(ExecutorService executor, long deadlineMs,
+                              String progressEndpoint, String statsEndpoint) {
+        this.executor = executor;
+        this.deadlineMs = deadlineMs;
+        this.progressEndpoint = progressEndpoint;
+        this.statsEndpoint = statsEndpoint;
+    }
+
+    /**
+     * Resolve o status da tarefa do usuário. Bloqueia a thread chamadora
+     * (nunca chamar na UI thread) por no máximo o prazo configurado.
+     *
+     * @return true se a tarefa foi concluída; false se não foi ou se nenhuma
+     *         resposta conclusiva chegou dentro do prazo
+     */
+    public boolean resolve(String userId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+
+        Probe progress = new Probe(Probe.PROGRESS, progressEndpoint + "?user_id=" + userId, deadline);
+        Probe stats = new Probe(Probe.STATS, statsEndpoint + userId, deadline);
+
+        CompletionService<Probe> completion = new ExecutorCompletionService<>(executor);
+        Future<Probe> progressFuture = completion.submit(progress);
+        Future<Probe> statsFuture = completion.submit(stats);
+
+        int requiredImpressions = DEFAULT_REQUIRED_IMPRESSIONS;
+        int requiredClicks = DEFAULT_REQUIRED_CLICKS;
+        Probe pendingStats = null;
+        // Progress respondeu (ou falhou): os requisitos já são os definitivos
+        boolean progressSettled = false;
+        int pending = 2;
+
+        try {
+            while (pending > 0) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    DiagLog.w(TAG, "⏱️ Prazo de {}ms esgotado sem resposta conclusiva", deadlineMs);
+                    return pendingStats != null && pendingStats.meets(requiredImpressions, requiredClicks);
+                }
+
+                Future<Probe> done = completion.poll(remaining, TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    continue;
+                }
+                pending--;
+
+                Probe result;
+                try {
+                    result = done.get();
+                } catch (Exception e) {
+                    result = null;
+                }
+                if (result == null || !result.ok) {
+                    if (done == progressFuture) {
+                        // Sem progress: avaliar o stats com os requisitos padrão
+                        progressSettled = true;
+                        if (pendingStats != null) {
+                            return pendingStats.meets(requiredImpressions, requiredClicks);
+                        }
+                    }
+                    continue;
+                }
+
+                if (result.kind == Probe.PROGRESS) {
+                    if (result.allCompleted) {
+                        DiagLog.d(TAG, "✅ Tarefa concluída (progress)");
+                        return true;
+                    }
+                    // Progress não conclusivo: usar os requisitos dele para avaliar o stats
+                    requiredImpressions = result.requiredImpressions;
+                    requiredClicks = result.requiredClicks;
+                    progressSettled = true;
+                    if (pendingStats != null) {
+                        return pendingStats.meets(requiredImpressions, requiredClicks);
+                    }
+                } else if (progressSettled) {
+                    if (result.meets(requiredImpressions, requiredClicks)) {
+                        DiagLog.d(TAG, "✅ Tarefa concluída (stats)");
+                        return true;
+                    }
+                    return false;
+                } else if (result.meets(DEFAULT_REQUIRED_IMPRESSIONS, DEFAULT_REQUIRED_CLICKS)) {
+                    DiagLog.d(TAG, "✅ Tarefa concluída (stats, requisitos padrão)");
+                    return true;
+                } else {
+                    // Abaixo do padrão: o progress ainda pode concluir ou trazer requisitos menores
+                    pendingStats = result;
+                }
+            }
+            return false;
+        } finally {
+            progress.cancel();
+            stats.cancel();
+            progressFuture.cancel(true);
+            statsFuture.cancel(true);
+        }
+    }
+
+    /**
+     * Uma consulta HTTP (progress ou stats) feita pelo cliente compartilhado,
+     * que pode ser cancelada derrubando a conexão em andamento.
+     */
+    private static final class Probe implements Callable<Probe> {
+        static final int PROGRESS = 0;
+        static final int STATS = 1;
+
+        final int kind;
+        private final String url;
+        private final long deadline;
+        private volatile HttpJsonClient.Call<?> call;
+        private volatile boolean cancelled;
+
+        boolean ok;
+        boolean allCompleted;
+        int requiredImpressions = DEFAULT_REQUIRED_IMPRESSIONS;
+        int requiredClicks = DEFAULT_REQUIRED_CLICKS;
+        int impressions;
+        int clicks;
+
+        Probe(int kind, String url, long deadline) {
+            this.kind = kind;
+            this.url = url;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public Probe call() {
+            try {
+                int timeout = (int) Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+                HttpJsonClient client = HttpJsonClient.getInstance();
+                if (kind == PROGRESS) {
+                    HttpJsonClient.Call<TaskProgress> progressCall = client.newGet(url,
+                            TaskProgress.parser(DEFAULT_REQUIRED_IMPRESSIONS, DEFAULT_REQUIRED_CLICKS));
+                    if (!start(progressCall)) return this;
+                    apply(progressCall.execute(timeout));
+                } else {
+                    HttpJsonClient.Call<TaskStats> statsCall = client.newGet(url, TaskStats.PARSER);
+                    if (!start(statsCall)) return this;
+                    apply(statsCall.execute(timeout));
+                }
+            } catch (Exception e) {
+                if (!cancelled) {
+                    DiagLog.e(TAG, "⚠️ Erro ao buscar {}: {}", name(), e.getMessage());
+                }
+            }
+            return this;
+        }
+
+        private boolean start(HttpJsonClient.Call<?> newCall) {
+            call = newCall;
+            if (cancelled) {
+                newCall.cancel();
+                return false;
+            }
+            return true;
+        }
+
+        private void apply(TaskProgress progress) {
+            if (!progress.success) return;
+            requiredImpressions = progress.requiredImpressions;
+            requiredClicks = progress.requiredClicks;
+            impressions = progress.impressions;
+            clicks = progress.clicks;
+            allCompleted = progress.allCompleted;
+            if (DiagLog.isLoggable(TAG, DiagLog.DEBUG)) {
+                DiagLog.d(TAG, "📊 Progress: {}/{} impressões, {}/{} cliques",
+                        impressions, requiredImpressions, clicks, requiredClicks);
+            }
+            ok = true;
+        }
+
+        private void apply(TaskStats stats) {
+            impressions = stats.totalImpressions;
+            clicks = stats.totalClicks;
+            if (DiagLog.isLoggable(TAG, DiagLog.DEBUG)) {
+                DiagLog.d(TAG, "📊 Stats: {} impressões, {} cliques", impressions, clicks);
+            }
+            ok = true;
+        }
+
+        boolean meets(int requiredImpressions, int requiredClicks) {
+            return impressions >= requiredImpressions && clicks >= requiredClicks;
+        }
+
+        void cancel() {
+            cancelled = true;
+            HttpJsonClient.Call<?> current = call;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+
+        private String name() {
+            return kind == PROGRESS ? "progress" : "stats";
+        }
+    }
+}
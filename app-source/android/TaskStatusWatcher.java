@@ -0,0 +1,209 @@
+package com.youngmoney2;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.youngmoney2.api.HttpJsonClient;
+import com.youngmoney2.api.TaskProgressWait;
+import com.youngmoney2.security.SecurityConfig;
+import com.youngmoney2.utils.DiagLog;
+
+import java.io.IOException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TaskStatusWatcher - Acompanha a conclusão da tarefa Monetag enquanto a roleta está aberta
+ *
+ * Long-poll em monetag/progress_wait.php: o servidor segura a requisição até
+ * o progresso do usuário mudar (aviso gravado junto com o evento da Monetag)
+ * ou o timeout, sem consultar o banco enquanto espera. A resposta traz a
+ * versão e a hora da última conferência, devolvidas na requisição seguinte
+ * (e guardadas entre onPause/onResume) para o servidor não reconsultar o
+ * banco à toa, e retry_after quando ele pede para reconectar mais tarde
+ * (tarefa concluída ou sem vaga para segurar).
+ * As requisições rodam numa thread própria (não ocupam o pool do AppExecutors)
+ * e a sessão desiste após algumas falhas seguidas, até o próximo start().
+ * start()/stop() devem ser chamados na UI thread; o listener é chamado nela.
+ */
+public class TaskStatusWatcher {
+    private static final String TAG = "TaskStatusWatcher";
+
+    // Tempo que o servidor segura a requisição; a leitura espera um pouco mais
+    private static final int HOLD_SECONDS = 25;
+    private static final int READ_TIMEOUT_MS = (HOLD_SECONDS + 10) * 1000;
+    private static final int MAX_RETRY_AFTER_SECONDS = 600;
+    private static final long RETRY_MIN_MS = 2000;
+    private static final long RETRY_MAX_MS = 60000;
+    private static final int MAX_CONSECUTIVE_FAILURES = 6;
+
+    // Thread dedicada às requisições; morre quando nenhuma roleta está aberta
+    private static final ScheduledThreadPoolExecutor POLLER = newPoller();
+
+    public interface Listener {
+        void onTaskStatusChanged(boolean taskCompleted);
+    }
+
+    /**
+     * Última resposta do servidor: versão do aviso e hora da conferência no banco
+     */
+    private static final class Cursor {
+        final String userId;
+        final boolean allCompleted;
+        final long version;
+        final long checkedAt;
+
+        Cursor(String userId, boolean allCompleted, long version, long checkedAt) {
+            this.userId = userId;
+            this.allCompleted = allCompleted;
+            this.version = version;
+            this.checkedAt = checkedAt;
+        }
+    }
+
+    private final String waitEndpoint;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private Session session;
+    // Sobrevive ao stop(): a volta do onResume não força nova consulta ao banco
+    private volatile Cursor cursor;
+
+    public TaskStatusWatcher() {
+        this(waitEndpointFor(SecurityConfig.getMontagProgressEndpoint()));
+    }
+
+    public TaskStatusWatcher(String waitEndpoint) {
+        this.waitEndpoint = waitEndpoint;
+    }
+
+    /**
+     * Começa a acompanhar mudanças para o usuário
+     *
+     * @param knownStatus último status conhecido; null entrega o primeiro status recebido
+     */
+    public void start(String userId, Boolean knownStatus, Listener listener) {
+        stop();
+        Cursor last = cursor;
+        if (last != null && (!last.userId.equals(userId) || knownStatus == null
+                || last.allCompleted != knownStatus)) {
+            // Cursor de outro usuário ou de outro estado: o servidor confere o banco de novo
+            last = null;
+        }
+        session = new Session(userId, knownStatus, last, listener);
+        session.schedule(0);
+        DiagLog.d(TAG, "👂 Acompanhando tarefa do user {} (conhecido: {})", userId, knownStatus);
+    }
+
+    public void stop() {
+        if (session == null) return;
+        session.stop();
+        session = null;
+        DiagLog.d(TAG, "🔇 Acompanhamento da tarefa encerrado");
+    }
+
+    private static String waitEndpointFor(String progressEndpoint) {
+        // Mesmo diretório do progress.php
+        return progressEndpoint.substring(0, progressEndpoint.lastIndexOf('/') + 1) + "progress_wait.php";
+    }
+
+    private static ScheduledThreadPoolExecutor newPoller() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "yM-task-watch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setKeepAliveTime(30, TimeUnit.SECONDS);
+        executor.allowCoreThreadTimeOut(true);
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    private final class Session implements Runnable {
+        private final String userId;
+        private final Listener listener;
+        private volatile Boolean known;
+        private volatile boolean stopped;
+        private volatile HttpJsonClient.Call<TaskProgressWait> call;
+        private volatile ScheduledFuture<?> next;
+        // Acessados só pela thread de requisições
+        private long version;
+        private long checkedAt;
+        private long retryDelay = RETRY_MIN_MS;
+        private int failures;
+
+        Session(String userId, Boolean known, Cursor last, Listener listener) {
+            this.userId = userId;
+            this.known = known;
+            this.listener = listener;
+            this.version = last != null ? last.version : -1;
+            this.checkedAt = last != null ? last.checkedAt : 0;
+        }
+
+        void schedule(long delayMs) {
+            if (stopped) return;
+            next = POLLER.schedule(this, delayMs, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void run() {
+            if (stopped) return;
+            Boolean since = known;
+            String url = waitEndpoint + "?user_id=" + userId
+                    + (since != null ? "&since=" + (since ? "1" : "0") : "")
+                    + "&version=" + version + "&checked_at=" + checkedAt + "&timeout=" + HOLD_SECONDS;
+            HttpJsonClient.Call<TaskProgressWait> current = HttpJsonClient.getInstance()
+                    .newGet(url, TaskProgressWait.PARSER);
+            call = current;
+            if (stopped) return;
+
+            try {
+                TaskProgressWait response = current.execute(READ_TIMEOUT_MS);
+                if (!response.success) {
+                    throw new IOException("Resposta sem sucesso");
+                }
+                version = response.version;
+                checkedAt = response.checkedAt;
+                if (since == null || response.allCompleted != since) {
+                    known = response.allCompleted;
+                    deliver(response.allCompleted);
+                }
+                cursor = new Cursor(userId, response.allCompleted, version, checkedAt);
+                retryDelay = RETRY_MIN_MS;
+                failures = 0;
+                int seconds = Math.max(0, Math.min(response.retryAfterSeconds, MAX_RETRY_AFTER_SECONDS));
+                schedule(TimeUnit.SECONDS.toMillis(seconds));
+            } catch (Exception e) {
+                if (stopped) return;
+                if (++failures >= MAX_CONSECUTIVE_FAILURES) {
+                    DiagLog.w(TAG, "❌ Long-poll falhou {} vezes seguidas, desistindo: {}", failures, e.getMessage());
+                    return;
+                }
+                DiagLog.w(TAG, "⚠️ Long-poll falhou, nova tentativa em {}ms: {}", retryDelay, e.getMessage());
+                schedule(retryDelay);
+                retryDelay = Math.min(retryDelay * 2, RETRY_MAX_MS);
+            }
+        }
+
+        private void deliver(boolean taskCompleted) {
+            TaskStatusRepository.getInstance().put(userId, taskCompleted);
+            mainHandler.post(() -> {
+                if (!stopped) {
+                    DiagLog.d(TAG, "{} Tarefa mudou: {}", (taskCompleted ? "✅" : "⏳"), taskCompleted);
+                    listener.onTaskStatusChanged(taskCompleted);
+                }
+            });
+        }
+
+        void stop() {
+            stopped = true;
+            ScheduledFuture<?> scheduled = next;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+            HttpJsonClient.Call<TaskProgressWait> current = call;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+    }
+}
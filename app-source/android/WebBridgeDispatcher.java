@@ -0,0 +1,348 @@
+package com.youngmoney2;
+
+import android.net.Uri;
+import android.os.Build;
+import android.view.Choreographer;
+import android.webkit.WebMessage;
+import android.webkit.WebMessagePort;
+import android.webkit.WebView;
+
+import com.youngmoney2.utils.DiagLog;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * WebBridgeDispatcher - Envio de estado Java → WebView em lote
+ *
+ * Mantém um único objeto de estado no Java. As alterações feitas dentro de
+ * um mesmo frame são agrupadas e enviadas ao HTML em UMA chamada
+ * evaluateJavascript com o diff aplicado por applyBridgeState(). Antes do
+ * onPageFinished as alterações ficam retidas e são enviadas juntas quando a
+ * página fica pronta.
+ *
+ * No onPageFinished abre um MessageChannel com a página: o diff vai pela
+ * porta (sem montar código JS) e os eventos da página voltam por ela como
+ * mensagens tipadas ({"type": ...}) para o {@link PageListener}. A sessão
+ * (userId, email, saldo) faz parte do estado, então a página a recebe uma vez
+ * e de novo só quando muda, sem getters síncronos na interface Android. Sem
+ * suporte a WebMessagePort o diff segue por evaluateJavascript.
+ * Deve ser usado apenas na UI thread.
+ */
+public class WebBridgeDispatcher {
+    private static final String TAG = "WebBridgeDispatcher";
+
+    private static final int DIRTY_SESSION = 1;
+    private static final int DIRTY_PRIZE_VALUES = 1 << 1;
+    private static final int DIRTY_SPINS = 1 << 2;
+    private static final int DIRTY_TASK = 1 << 3;
+    private static final int DIRTY_SPIN = 1 << 4;
+    private static final int DIRTY_SPIN_FINISHED = 1 << 5;
+    private static final int DIRTY_SPECULATIVE_SPIN = 1 << 6;
+    private static final int DIRTY_CANCEL_SPIN = 1 << 7;
+
+    private static final String CHANNEL_INIT = "youngmoney-bridge";
+
+    /**
+     * Eventos enviados pela página através do canal
+     */
+    public interface PageListener {
+        void onSpinRequested();
+
+        void onAutoSpinRequested();
+
+        void onSpinComplete(int points);
+
+        void onBackPressed();
+
+        void openAdWebView();
+    }
+
+    /**
+     * Sessão imutável enviada à página; balance -1 quando ainda desconhecido
+     */
+    public static final class Session {
+        final String userId;
+        final String email;
+        final int balance;
+
+        public Session(String userId, String email, int balance) {
+            this.userId = userId != null ? userId : "";
+            this.email = email != null ? email : "";
+            this.balance = balance;
+        }
+
+        public Session withBalance(int balance) {
+            return new Session(userId, email, balance);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Session)) return false;
+            Session that = (Session) other;
+            return balance == that.balance && userId.equals(that.userId) && email.equals(that.email);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, email, balance);
+        }
+    }
+
+    private final WebView webView;
+    private final PageListener pageListener;
+    private final Choreographer.FrameCallback frameCallback = frameTimeNanos -> flush();
+    private WebMessagePort port;
+
+    // Estado atual conhecido pelo Java
+    private Session session;
+    private int[] prizeValues;
+    private boolean hasSpins;
+    private int spinsRemaining;
+    private int spinsToday;
+    private int maxDailySpins;
+    private Boolean taskCompleted;
+    private Integer pendingSpinPrize;
+    private Integer pendingSpinFinished;
+
+    private int dirty;
+    private boolean pageReady;
+    private boolean flushScheduled;
+    private int evaluationCount;
+
+    public WebBridgeDispatcher(WebView webView, PageListener pageListener) {
+        this.webView = webView;
+        this.pageListener = pageListener;
+    }
+
+    public void setSession(Session session) {
+        if (session == null || session.equals(this.session)) return;
+        this.session = session;
+        markDirty(DIRTY_SESSION);
+    }
+
+    public Session getSession() {
+        return session;
+    }
+
+    public void setPrizeValues(int[] prizeValues) {
+        if (prizeValues == null || Arrays.equals(prizeValues, this.prizeValues)) return;
+        this.prizeValues = prizeValues;
+        markDirty(DIRTY_PRIZE_VALUES);
+    }
+
+    public void setSpinsCounter(int spinsRemaining, int spinsToday, int maxDailySpins) {
+        if (hasSpins && this.spinsRemaining == spinsRemaining && this.spinsToday == spinsToday
+                && this.maxDailySpins == maxDailySpins) {
+            return;
+        }
+        hasSpins = true;
+        this.spinsRemaining = spinsRemaining;
+        this.spinsToday = spinsToday;
+        this.maxDailySpins = maxDailySpins;
+        markDirty(DIRTY_SPINS);
+    }
+
+    public void setTaskCompleted(boolean taskCompleted) {
+        if (this.taskCompleted != null && this.taskCompleted == taskCompleted) return;
+        this.taskCompleted = taskCompleted;
+        markDirty(DIRTY_TASK);
+    }
+
+    /**
+     * Comando único (não é estado): anima a roleta até o prêmio
+     */
+    public void spin(int prizeValue) {
+        pendingSpinPrize = prizeValue;
+        markDirty(DIRTY_SPIN);
+    }
+
+    /**
+     * Comando único: começa a girar antes da resposta do servidor
+     */
+    public void startSpeculativeSpin() {
+        dirty &= ~DIRTY_CANCEL_SPIN;
+        markDirty(DIRTY_SPECULATIVE_SPIN);
+    }
+
+    /**
+     * Comando único: interrompe o giro especulativo (erro ou timeout da API)
+     */
+    public void cancelSpeculativeSpin() {
+        if ((dirty & DIRTY_SPECULATIVE_SPIN) != 0) {
+            // Ainda não enviado: basta não iniciar
+            dirty &= ~DIRTY_SPECULATIVE_SPIN;
+            return;
+        }
+        markDirty(DIRTY_CANCEL_SPIN);
+    }
+
+    /**
+     * Comando único: conclui o giro animado pelo modo nativo (SpinWheelView)
+     */
+    public void spinFinished(int prizeValue) {
+        pendingSpinFinished = prizeValue;
+        markDirty(DIRTY_SPIN_FINISHED);
+    }
+
+    /**
+     * Chamado no onPageFinished: reenvia todo o estado conhecido para a página
+     */
+    public void onPageReady() {
+        pageReady = true;
+        openChannel();
+        if (session != null) dirty |= DIRTY_SESSION;
+        if (prizeValues != null) dirty |= DIRTY_PRIZE_VALUES;
+        if (hasSpins) dirty |= DIRTY_SPINS;
+        if (taskCompleted != null) dirty |= DIRTY_TASK;
+        scheduleFlush();
+    }
+
+    /**
+     * Fecha o canal com a página e descarta o envio pendente (no onDestroy da activity)
+     */
+    public void close() {
+        if (flushScheduled) {
+            Choreographer.getInstance().removeFrameCallback(frameCallback);
+            flushScheduled = false;
+        }
+        if (port != null) {
+            port.close();
+            port = null;
+        }
+    }
+
+    private void openChannel() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.M) return;
+        try {
+            if (port != null) port.close();
+            WebMessagePort[] ports = webView.createWebMessageChannel();
+            ports[0].setWebMessageCallback(new WebMessagePort.WebMessageCallback() {
+                @Override
+                public void onMessage(WebMessagePort source, WebMessage message) {
+                    dispatchPageMessage(message.getData());
+                }
+            });
+            // Porta só para a origem da roleta: outra página carregada no WebView não a recebe
+            webView.postWebMessage(new WebMessage(CHANNEL_INIT, new WebMessagePort[]{ports[1]}),
+                    Uri.parse(SpinWheelWebViewPool.PAGE_ORIGIN));
+            port = ports[0];
+            DiagLog.d(TAG, "Canal WebMessagePort aberto");
+        } catch (Exception e) {
+            port = null;
+            DiagLog.w(TAG, "WebMessagePort indisponível, usando evaluateJavascript: {}", e.getMessage());
+        }
+    }
+
+    private void dispatchPageMessage(String data) {
+        try {
+            JSONObject message = new JSONObject(data);
+            String type = message.getString("type");
+            switch (type) {
+                case "spinRequested":
+                    pageListener.onSpinRequested();
+                    break;
+                case "autoSpinRequested":
+                    pageListener.onAutoSpinRequested();
+                    break;
+                case "spinComplete":
+                    pageListener.onSpinComplete(message.getInt("value"));
+                    break;
+                case "backPressed":
+                    pageListener.onBackPressed();
+                    break;
+                case "openTaskPage":
+                    pageListener.openAdWebView();
+                    break;
+                default:
+                    DiagLog.w(TAG, "Mensagem desconhecida da página: {}", type);
+            }
+        } catch (Exception e) {
+            DiagLog.e(TAG, "Mensagem inválida da página: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Número de envios (porta ou evaluateJavascript) feitos pela ponte nesta sessão
+     */
+    public int getEvaluationCount() {
+        return evaluationCount;
+    }
+
+    private void markDirty(int flag) {
+        dirty |= flag;
+        scheduleFlush();
+    }
+
+    private void scheduleFlush() {
+        if (!pageReady || flushScheduled || dirty == 0) return;
+        flushScheduled = true;
+        Choreographer.getInstance().postFrameCallback(frameCallback);
+    }
+
+    private void flush() {
+        flushScheduled = false;
+        if (dirty == 0) return;
+
+        try {
+            JSONObject diff = new JSONObject();
+            if ((dirty & DIRTY_SESSION) != 0) {
+                JSONObject sessionJson = new JSONObject();
+                sessionJson.put("userId", session.userId);
+                sessionJson.put("email", session.email);
+                if (session.balance >= 0) sessionJson.put("balance", session.balance);
+                diff.put("session", sessionJson);
+            }
+            if ((dirty & DIRTY_PRIZE_VALUES) != 0) {
+                JSONArray values = new JSONArray();
+                for (int value : prizeValues) {
+                    values.put(value);
+                }
+                diff.put("prizeValues", values);
+            }
+            if ((dirty & DIRTY_SPINS) != 0) {
+                JSONObject spins = new JSONObject();
+                spins.put("remaining", spinsRemaining);
+                spins.put("today", spinsToday);
+                spins.put("max", maxDailySpins);
+                diff.put("spins", spins);
+            }
+            if ((dirty & DIRTY_TASK) != 0) {
+                diff.put("taskCompleted", taskCompleted.booleanValue());
+            }
+            if ((dirty & DIRTY_SPECULATIVE_SPIN) != 0) {
+                diff.put("speculativeSpin", true);
+            }
+            if ((dirty & DIRTY_CANCEL_SPIN) != 0) {
+                diff.put("cancelSpin", true);
+            }
+            if ((dirty & DIRTY_SPIN) != 0 && pendingSpinPrize != null) {
+                diff.put("spin", pendingSpinPrize.intValue());
+                pendingSpinPrize = null;
+            }
+            if ((dirty & DIRTY_SPIN_FINISHED) != 0 && pendingSpinFinished != null) {
+                diff.put("spinFinished", pendingSpinFinished.intValue());
+                pendingSpinFinished = null;
+            }
+            dirty = 0;
+
+            evaluationCount++;
+            // Por frame: sem o nível ativo, nem boxing do contador nem formatação
+            if (DiagLog.isLoggable(TAG, DiagLog.DEBUG)) {
+                DiagLog.d(TAG, "📤 Flush #{}: {}", evaluationCount, diff);
+            }
+            if (port != null) {
+                port.postMessage(new WebMessage(diff.toString()));
+            } else {
+                String js = "if(typeof applyBridgeState === 'function') applyBridgeState(" + diff + ")";
+                webView.evaluateJavascript(js, null);
+            }
+        } catch (Exception e) {
+            dirty = 0;
+            DiagLog.e(TAG, "Erro ao enviar estado para o HTML: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package com.youngmoney2;
+
+import android.content.Context;
+import android.net.Uri;
+import android.webkit.WebResourceRequest;
+import android.webkit.WebResourceResponse;
+
+import com.youngmoney2.utils.DiagLog;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * WebResourceCache - Cache em disco dos recursos remotos da página da roleta
+ *
+ * Usado no shouldInterceptRequest dos WebViews da roleta (activity e pool):
+ * - Scripts, estilos e fontes de hosts permitidos saem de um cache do app
+ *   (tamanho máximo, descarte do menos usado)
+ * - A validade segue o Cache-Control do servidor (max-age menos Age);
+ *   no-store não é gravado e, sem max-age, toda entrega é revalidada
+ * - Cópia vencida é entregue na hora e revalidada em segundo plano
+ *   (If-None-Match / If-Modified-Since)
+ * - Item ausente segue pela rede do próprio WebView e é baixado para o
+ *   cache em segundo plano, sem segurar a thread do WebView
+ * - Hosts bloqueados recebem resposta vazia, sem ir à rede
+ */
+public class WebResourceCache {
+    private static final String TAG = "WebResourceCache";
+    private static final int VERSION = 2;
+    private static final long MAX_CACHE_BYTES = 4L * 1024 * 1024;
+    private static final int MAX_ENTRY_BYTES = 1024 * 1024;
+    private static final int TIMEOUT_MS = 10000;
+
+    // Hosts (e subdomínios) servidos pelo cache
+    private static final Set<String> CACHEABLE_HOSTS = new HashSet<>(Arrays.asList(
+            "alwingulla.com"
+    ));
+    // Hosts que a página nunca deve carregar
+    private static final Set<String> BLOCKED_HOSTS = new HashSet<>();
+    private static final Map<String, String> MIME_TYPES = new HashMap<>();
+
+    static {
+        MIME_TYPES.put(".js", "application/javascript");
+        MIME_TYPES.put(".css", "text/css");
+        MIME_TYPES.put(".woff2", "font/woff2");
+        MIME_TYPES.put(".woff", "font/woff");
+        MIME_TYPES.put(".ttf", "font/ttf");
+        MIME_TYPES.put(".otf", "font/otf");
+    }
+
+    private static WebResourceCache instance;
+    private static final AtomicLong hitCount = new AtomicLong();
+    private static final AtomicLong networkFetchCount = new AtomicLong();
+
+    private final File directory;
+    // Chaves com download em andamento (item ausente ou revalidação)
+    private final Set<String> fetching = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    private static final class Entry {
+        final String mimeType;
+        final String encoding;
+        final String etag;
+        final String lastModified;
+        // Fim da validade (Cache-Control); depois disso a cópia é revalidada
+        final long freshUntil;
+        final byte[] body;
+
+        Entry(String mimeType, String encoding, String etag, String lastModified, long freshUntil, byte[] body) {
+            this.mimeType = mimeType;
+            this.encoding = encoding;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.freshUntil = freshUntil;
+            this.body = body;
+        }
+    }
+
+    public static synchronized WebResourceCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new WebResourceCache(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private WebResourceCache(Context appContext) {
+        this.directory = new File(appContext.getCacheDir(), "roulette_resources");
+    }
+
+    /**
+     * Recursos entregues pelo cache desde o início do processo
+     */
+    public static long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Downloads feitos pelo cache (ausentes e revalidações) desde o início do processo
+     */
+    public static long getNetworkFetchCount() {
+        return networkFetchCount.get();
+    }
+
+    /**
+     * @return resposta do cache (ou de bloqueio), ou null para o WebView seguir normalmente
+     */
+    public WebResourceResponse intercept(WebResourceRequest request) {
+        if (!"GET".equalsIgnoreCase(request.getMethod())) return null;
+        Uri uri = request.getUrl();
+        String host = uri.getHost();
+        if (host == null || !"https".equals(uri.getScheme())) return null;
+
+        if (matchesHost(BLOCKED_HOSTS, host)) {
+            DiagLog.d(TAG, "🚫 Bloqueado: {}", uri);
+            return new WebResourceResponse("text/plain", "utf-8", 204, "No Content", null,
+                    new ByteArrayInputStream(new byte[0]));
+        }
+
+        String mimeType = mimeTypeFor(uri.getPath());
+        if (mimeType == null || !matchesHost(CACHEABLE_HOSTS, host)) return null;
+
+        String url = uri.toString();
+        String key = keyFor(url);
+        Entry entry = read(key);
+        if (entry != null) {
+            hitCount.incrementAndGet();
+            if (System.currentTimeMillis() >= entry.freshUntil) {
+                fetchInBackground(url, key, entry, entry.mimeType);
+            }
+            return toResponse(entry);
+        }
+
+        // Ausente: o WebView baixa normalmente e o cache é preenchido à parte
+        fetchInBackground(url, key, null, mimeType);
+        return null;
+    }
+
+    private void fetchInBackground(String url, String key, Entry previous, String mimeType) {
+        if (!fetching.add(key)) return;
+        try {
+            AppExecutors.background().execute(() -> {
+                try {
+                    fetch(url, key, previous, mimeType);
+                } finally {
+                    fetching.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Fica para a próxima requisição do mesmo recurso
+            fetching.remove(key);
+        }
+    }
+
+    /**
+     * Baixa (ou revalida) o recurso e grava no cache, conforme o Cache-Control
+     */
+    private void fetch(String url, String key, Entry previous, String defaultMimeType) {
+        HttpURLConnection connection = null;
+        try {
+            networkFetchCount.incrementAndGet();
+            connection = (HttpURLConnection) new URL(url).openConnection();
+            connection.setConnectTimeout(TIMEOUT_MS);
+            connection.setReadTimeout(TIMEOUT_MS);
+            if (previous != null) {
+                if (!previous.etag.isEmpty()) connection.setRequestProperty("If-None-Match", previous.etag);
+                if (!previous.lastModified.isEmpty()) {
+                    connection.setRequestProperty("If-Modified-Since", previous.lastModified);
+                }
+            }
+
+            int code = connection.getResponseCode();
+            String cacheControl = headerOrEmpty(connection, "Cache-Control").toLowerCase(Locale.ROOT);
+            if (cacheControl.contains("no-store")) {
+                // O servidor não quer cópia guardada: remover a antiga, se houver
+                new File(directory, key).delete();
+                return;
+            }
+            long freshUntil = System.currentTimeMillis() + freshnessMs(cacheControl, connection);
+
+            if (code == HttpURLConnection.HTTP_NOT_MODIFIED && previous != null) {
+                write(key, new Entry(previous.mimeType, previous.encoding, previous.etag,
+                        previous.lastModified, freshUntil, previous.body));
+                return;
+            }
+            if (code != HttpURLConnection.HTTP_OK) {
+                DiagLog.w(TAG, "HTTP {} ao baixar {}", code, url);
+                return;
+            }
+
+            byte[] body = readBody(connection.getInputStream());
+            if (body == null) return;
+
+            String mimeType = defaultMimeType;
+            String encoding = "utf-8";
+            String contentType = connection.getContentType();
+            if (contentType != null) {
+                String[] parts = contentType.split(";");
+                if (!parts[0].trim().isEmpty()) mimeType = parts[0].trim();
+                for (int i = 1; i < parts.length; i++) {
+                    String part = parts[i].trim();
+                    if (part.toLowerCase().startsWith("charset=")) encoding = part.substring(8);
+                }
+            }
+
+            write(key, new Entry(mimeType, encoding, headerOrEmpty(connection, "ETag"),
+                    headerOrEmpty(connection, "Last-Modified"), freshUntil, body));
+            evictIfNeeded();
+            DiagLog.d(TAG, "⬇️ {} em cache ({} bytes)", url, body.length);
+        } catch (Exception e) {
+            DiagLog.w(TAG, "Erro ao baixar {}: {}", url, e.getMessage());
+        } finally {
+            if (connection != null) connection.disconnect();
+        }
+    }
+
+    /**
+     * Validade pelo max-age (descontado o Age); sem max-age ou com no-cache, 0
+     */
+    private static long freshnessMs(String cacheControl, HttpURLConnection connection) {
+        if (cacheControl.contains("no-cache")) return 0;
+        for (String directive : cacheControl.split(",")) {
+            directive = directive.trim();
+            if (!directive.startsWith("max-age=")) continue;
+            try {
+                long maxAge = Long.parseLong(directive.substring(8).trim());
+                long age = Math.max(0, connection.getHeaderFieldInt("Age", 0));
+                return Math.max(0, maxAge - age) * 1000;
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+        return 0;
+    }
+
+    private static byte[] readBody(InputStream in) throws Exception {
+        try (InputStream input = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+                if (out.size() > MAX_ENTRY_BYTES) return null;
+            }
+            return out.toByteArray();
+        }
+    }
+
+    private Entry read(String key) {
+        File file = new File(directory, key);
+        if (!file.exists()) return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != VERSION) throw new IllegalStateException("Versão desconhecida");
+            String mimeType = in.readUTF();
+            String encoding = in.readUTF();
+            String etag = in.readUTF();
+            String lastModified = in.readUTF();
+            long freshUntil = in.readLong();
+            byte[] body = new byte[in.readInt()];
+            in.readFully(body);
+            // Data de acesso para o descarte do menos usado
+            file.setLastModified(System.currentTimeMillis());
+            return new Entry(mimeType, encoding, etag, lastModified, freshUntil, body);
+        } catch (Exception e) {
+            DiagLog.w(TAG, "Item ilegível, descartando: {}", e.getMessage());
+            file.delete();
+            return null;
+        }
+    }
+
+    private void write(String key, Entry entry) {
+        if (!directory.exists() && !directory.mkdirs()) return;
+        File file = new File(directory, key);
+        File temp = new File(directory, key + ".tmp." + Thread.currentThread().getId());
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(VERSION);
+            out.writeUTF(entry.mimeType);
+            out.writeUTF(entry.encoding);
+            out.writeUTF(entry.etag);
+            out.writeUTF(entry.lastModified);
+            out.writeLong(entry.freshUntil);
+            out.writeInt(entry.body.length);
+            out.write(entry.body);
+        } catch (Exception e) {
+            DiagLog.w(TAG, "Erro ao gravar item: {}", e.getMessage());
+            temp.delete();
+            return;
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+        }
+    }
+
+    private synchronized void evictIfNeeded() {
+        File[] files = directory.listFiles();
+        if (files == null) return;
+        long total = 0;
+        for (File file : files) {
+            total += file.length();
+        }
+        if (total <= MAX_CACHE_BYTES) return;
+
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (File file : files) {
+            if (total <= MAX_CACHE_BYTES) break;
+            total -= file.length();
+            file.delete();
+        }
+    }
+
+    private static WebResourceResponse toResponse(Entry entry) {
+        return new WebResourceResponse(entry.mimeType, entry.encoding, new ByteArrayInputStream(entry.body));
+    }
+
+    private static boolean matchesHost(Set<String> hosts, String host) {
+        for (String allowed : hosts) {
+            if (host.equals(allowed) || host.endsWith("." + allowed)) return true;
+        }
+        return false;
+    }
+
+    private static String mimeTypeFor(String path) {
+        if (path == null) return null;
+        String lower = path.toLowerCase();
+        for (Map.Entry<String, String> type : MIME_TYPES.entrySet()) {
+            if (lower.endsWith(type.getKey())) return type.getValue();
+        }
+        return null;
+    }
+
+    private static String headerOrEmpty(HttpURLConnection connection, String name) {
+        String value = connection.getHeaderField(name);
+        return value != null ? value : "";
+    }
+
+    private static String keyFor(String url) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest(url.getBytes("UTF-8"))) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (Exception e) {
+            return Integer.toHexString(url.hashCode());
+        }
+    }
+}
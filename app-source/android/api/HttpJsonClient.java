@@ -0,0 +1,209 @@
+package com.youngmoney2.api;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import com.youngmoney2.utils.DiagLog;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * HttpJsonClient - Cliente HTTP compartilhado para as chamadas diretas do app
+ *
+ * Usa o pool de conexões keep-alive do HttpURLConnection: o corpo é sempre
+ * lido até o fim e o stream fechado, sem disconnect(), para que o socket
+ * volte ao pool e seja reutilizado na próxima chamada ao mesmo host.
+ * Respostas gzip são descompactadas e o JSON é decodificado token a token
+ * (JsonReader) direto para objetos de valor, sem montar String nem JSONObject.
+ */
+public class HttpJsonClient {
+    private static final String TAG = "HttpJsonClient";
+
+    private static HttpJsonClient instance;
+    private static final AtomicLong requestCount = new AtomicLong();
+
+    /**
+     * Converte o corpo da resposta (já posicionado no início) em um objeto de valor
+     */
+    public interface ResponseParser<T> {
+        T parse(JsonReader reader) throws IOException;
+    }
+
+    public static synchronized HttpJsonClient getInstance() {
+        if (instance == null) {
+            instance = new HttpJsonClient();
+        }
+        return instance;
+    }
+
+    private HttpJsonClient() {
+    }
+
+    /**
+     * Total de requisições iniciadas pelo cliente no processo (métricas)
+     */
+    public static long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * Cria uma requisição GET que pode ser executada uma vez e cancelada de outra thread
+     */
+    public <T> Call<T> newGet(String url, ResponseParser<T> parser) {
+        return new Call<>(url, parser);
+    }
+
+    /**
+     * Uma requisição GET. {@link #cancel()} derruba a conexão em andamento
+     * (e só nesse caso o socket não volta para o pool).
+     */
+    public static final class Call<T> {
+        private final String url;
+        private final ResponseParser<T> parser;
+        private volatile HttpURLConnection connection;
+        private volatile boolean cancelled;
+
+        private Call(String url, ResponseParser<T> parser) {
+            this.url = url;
+            this.parser = parser;
+        }
+
+        /**
+         * Executa a requisição na thread atual (nunca na UI thread)
+         *
+         * @throws IOException em erro de rede, status diferente de 200 ou cancelamento
+         */
+        public T execute(int timeoutMs) throws IOException {
+            requestCount.incrementAndGet();
+            HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
+            connection = conn;
+            if (cancelled) {
+                conn.disconnect();
+                throw new IOException("Cancelada");
+            }
+
+            try {
+                conn.setRequestMethod("GET");
+                conn.setConnectTimeout(timeoutMs);
+                conn.setReadTimeout(timeoutMs);
+                conn.setRequestProperty("Accept", "application/json");
+                conn.setRequestProperty("Accept-Encoding", "gzip");
+
+                int responseCode = conn.getResponseCode();
+                if (responseCode != HttpURLConnection.HTTP_OK) {
+                    drainAndClose(conn.getErrorStream());
+                    throw new IOException("HTTP " + responseCode);
+                }
+
+                InputStream in = conn.getInputStream();
+                if ("gzip".equalsIgnoreCase(conn.getContentEncoding())) {
+                    in = new GZIPInputStream(in);
+                }
+                try {
+                    JsonReader reader = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+                    T result = parser.parse(reader);
+                    // Consumir o restante para liberar a conexão ao pool
+                    drain(in);
+                    return result;
+                } finally {
+                    in.close();
+                }
+            } catch (IOException e) {
+                if (cancelled) {
+                    throw new IOException("Cancelada", e);
+                }
+                conn.disconnect();
+                throw e;
+            }
+        }
+
+        public void cancel() {
+            cancelled = true;
+            HttpURLConnection conn = connection;
+            if (conn != null) {
+                conn.disconnect();
+            }
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    /**
+     * Lê um inteiro tolerando null e números enviados como string pelo PHP
+     */
+    public static int nextInt(JsonReader reader, int fallback) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.NUMBER || token == JsonToken.STRING) {
+            try {
+                return reader.nextInt();
+            } catch (NumberFormatException e) {
+                return fallback;
+            }
+        }
+        reader.skipValue();
+        return fallback;
+    }
+
+    /**
+     * Lê um booleano tolerando null, "true"/"false" e 0/1
+     */
+    public static boolean nextBoolean(JsonReader reader, boolean fallback) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.BOOLEAN) {
+            return reader.nextBoolean();
+        }
+        if (token == JsonToken.NUMBER) {
+            return reader.nextInt() != 0;
+        }
+        if (token == JsonToken.STRING) {
+            String value = reader.nextString();
+            if ("true".equalsIgnoreCase(value) || "1".equals(value)) return true;
+            if ("false".equalsIgnoreCase(value) || "0".equals(value)) return false;
+            return fallback;
+        }
+        reader.skipValue();
+        return fallback;
+    }
+
+    /**
+     * Lê um long tolerando null e números enviados como string pelo PHP
+     */
+    public static long nextLong(JsonReader reader, long fallback) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.NUMBER || token == JsonToken.STRING) {
+            try {
+                return reader.nextLong();
+            } catch (NumberFormatException e) {
+                return fallback;
+            }
+        }
+        reader.skipValue();
+        return fallback;
+    }
+
+    private static void drain(InputStream in) throws IOException {
+        byte[] buffer = new byte[1024];
+        while (in.read(buffer) != -1) {
+            // descartar
+        }
+    }
+
+    private static void drainAndClose(InputStream in) {
+        if (in == null) return;
+        try {
+            drain(in);
+            in.close();
+        } catch (IOException e) {
+            DiagLog.w(TAG, "Falha ao descartar corpo de erro: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.youngmoney2.api;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * TaskProgress - Resposta da API de progresso da tarefa Monetag
+ *
+ * Formato: { "success": true, "data": { "impressions", "clicks",
+ * "required_impressions", "required_clicks", "all_completed" } }
+ */
+public final class TaskProgress {
+    public final boolean success;
+    public final int impressions;
+    public final int clicks;
+    public final int requiredImpressions;
+    public final int requiredClicks;
+    public final boolean allCompleted;
+
+    private TaskProgress(boolean success, int impressions, int clicks,
+                         int requiredImpressions, int requiredClicks, boolean allCompleted) {
+        this.success = success;
+        this.impressions = impressions;
+        this.clicks = clicks;
+        this.requiredImpressions = requiredImpressions;
+        this.requiredClicks = requiredClicks;
+        this.allCompleted = allCompleted;
+    }
+
+    /**
+     * Parser para {@link HttpJsonClient#newGet}; campos ausentes assumem os valores padrão
+     */
+    public static HttpJsonClient.ResponseParser<TaskProgress> parser(int defaultImpressions, int defaultClicks) {
+        return reader -> read(reader, defaultImpressions, defaultClicks);
+    }
+
+    private static TaskProgress read(JsonReader reader, int defaultImpressions, int defaultClicks)
+            throws IOException {
+        boolean success = false;
+        int impressions = 0;
+        int clicks = 0;
+        int requiredImpressions = defaultImpressions;
+        int requiredClicks = defaultClicks;
+        boolean allCompleted = false;
+        boolean hasData = false;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("success".equals(name)) {
+                success = HttpJsonClient.nextBoolean(reader, false);
+            } else if ("data".equals(name) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                hasData = true;
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.nextName()) {
+                        case "impressions":
+                            impressions = HttpJsonClient.nextInt(reader, 0);
+                            break;
+                        case "clicks":
+                            clicks = HttpJsonClient.nextInt(reader, 0);
+                            break;
+                        case "required_impressions":
+                            requiredImpressions = HttpJsonClient.nextInt(reader, defaultImpressions);
+                            break;
+                        case "required_clicks":
+                            requiredClicks = HttpJsonClient.nextInt(reader, defaultClicks);
+                            break;
+                        case "all_completed":
+                            allCompleted = HttpJsonClient.nextBoolean(reader, false);
+                            break;
+                        default:
+                            reader.skipValue();
+                    }
+                }
+                reader.endObject();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new TaskProgress(success && hasData, impressions, clicks,
+                requiredImpressions, requiredClicks, allCompleted);
+    }
+}
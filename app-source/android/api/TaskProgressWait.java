@@ -0,0 +1,82 @@
+package com.youngmoney2.api;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * TaskProgressWait - Resposta do long-poll de progresso da tarefa (progress_wait.php)
+ *
+ * Formato: { "success": true, "data": { "all_completed", "changed", "version",
+ * "checked_at", "retry_after", ... } }. version e checked_at voltam na próxima
+ * requisição; retry_after é a espera (segundos) antes de reconectar.
+ */
+public final class TaskProgressWait {
+    public final boolean success;
+    public final boolean allCompleted;
+    public final boolean changed;
+    public final long version;
+    public final long checkedAt;
+    public final int retryAfterSeconds;
+
+    private TaskProgressWait(boolean success, boolean allCompleted, boolean changed,
+                             long version, long checkedAt, int retryAfterSeconds) {
+        this.success = success;
+        this.allCompleted = allCompleted;
+        this.changed = changed;
+        this.version = version;
+        this.checkedAt = checkedAt;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public static final HttpJsonClient.ResponseParser<TaskProgressWait> PARSER = TaskProgressWait::read;
+
+    private static TaskProgressWait read(JsonReader reader) throws IOException {
+        boolean success = false;
+        boolean allCompleted = false;
+        boolean changed = false;
+        long version = -1;
+        long checkedAt = 0;
+        int retryAfter = 0;
+        boolean hasData = false;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("success".equals(name)) {
+                success = HttpJsonClient.nextBoolean(reader, false);
+            } else if ("data".equals(name) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                hasData = true;
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.nextName()) {
+                        case "all_completed":
+                            allCompleted = HttpJsonClient.nextBoolean(reader, false);
+                            break;
+                        case "changed":
+                            changed = HttpJsonClient.nextBoolean(reader, false);
+                            break;
+                        case "version":
+                            version = HttpJsonClient.nextLong(reader, -1);
+                            break;
+                        case "checked_at":
+                            checkedAt = HttpJsonClient.nextLong(reader, 0);
+                            break;
+                        case "retry_after":
+                            retryAfter = HttpJsonClient.nextInt(reader, 0);
+                            break;
+                        default:
+                            reader.skipValue();
+                    }
+                }
+                reader.endObject();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new TaskProgressWait(success && hasData, allCompleted, changed, version, checkedAt, retryAfter);
+    }
+}
@@ -0,0 +1,42 @@
+package com.youngmoney2.api;
+
+import android.util.JsonReader;
+
+import java.io.IOException;
+
+/**
+ * TaskStats - Resposta da API de estatísticas Monetag
+ *
+ * Formato: { "total_impressions": N, "total_clicks": N, ... }
+ */
+public final class TaskStats {
+    public final int totalImpressions;
+    public final int totalClicks;
+
+    private TaskStats(int totalImpressions, int totalClicks) {
+        this.totalImpressions = totalImpressions;
+        this.totalClicks = totalClicks;
+    }
+
+    public static final HttpJsonClient.ResponseParser<TaskStats> PARSER = TaskStats::read;
+
+    private static TaskStats read(JsonReader reader) throws IOException {
+        int impressions = 0;
+        int clicks = 0;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("total_impressions".equals(name)) {
+                impressions = HttpJsonClient.nextInt(reader, 0);
+            } else if ("total_clicks".equals(name)) {
+                clicks = HttpJsonClient.nextInt(reader, 0);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new TaskStats(impressions, clicks);
+    }
+}
@@ -0,0 +1,60 @@
+package com.youngmoney2.metrics;
+
+import android.util.Log;
+
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * JsonFileMetricsExporter - Exportador padrão: um arquivo JSON por sessão
+ *
+ * Grava em files/roulette_metrics/session-&lt;timestamp&gt;.json e mantém
+ * apenas os arquivos mais recentes.
+ */
+public class JsonFileMetricsExporter implements MetricsExporter {
+    private static final String TAG = "JsonFileMetricsExporter";
+    private static final int MAX_FILES = 20;
+
+    private final File directory;
+
+    public JsonFileMetricsExporter(File filesDir) {
+        this.directory = new File(filesDir, "roulette_metrics");
+    }
+
+    @Override
+    public void export(JSONObject report) {
+        if (!directory.exists() && !directory.mkdirs()) {
+            Log.w(TAG, "Não foi possível criar " + directory);
+            return;
+        }
+
+        File file = new File(directory, "session-" + System.currentTimeMillis() + ".json");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writer.write(report.toString());
+        } catch (Exception e) {
+            Log.e(TAG, "Erro ao gravar métricas: " + e.getMessage());
+            return;
+        }
+        pruneOldFiles();
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    private void pruneOldFiles() {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith("session-") && name.endsWith(".json"));
+        if (files == null || files.length <= MAX_FILES) return;
+        // Nome contém o timestamp: ordem alfabética = ordem cronológica
+        Arrays.sort(files);
+        for (int i = 0; i < files.length - MAX_FILES; i++) {
+            files[i].delete();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.youngmoney2.metrics;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * LatencyHistogram - Histograma de latências em milissegundos
+ *
+ * Buckets em escala logarítmica (cada um ~5% maior que o anterior, até 60s),
+ * alocados uma única vez. Os percentis são aproximados pelo limite superior
+ * do bucket, com erro relativo de no máximo ~5%. Thread-safe.
+ */
+public final class LatencyHistogram {
+    private static final double GROWTH = 1.05;
+    private static final double LOG_GROWTH = Math.log(GROWTH);
+    private static final long MAX_VALUE_MS = 60000;
+    private static final int BUCKETS = bucketFor(MAX_VALUE_MS) + 1;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    public synchronized void record(long valueMs) {
+        if (valueMs < 0) valueMs = 0;
+        counts[bucketFor(Math.min(valueMs, MAX_VALUE_MS))]++;
+        count++;
+        sum += valueMs;
+        min = Math.min(min, valueMs);
+        max = Math.max(max, valueMs);
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * Valor aproximado do percentil (0-100); 0 se vazio
+     */
+    public synchronized long percentile(double percentile) {
+        if (count == 0) return 0;
+        long rank = (long) Math.ceil(percentile / 100.0 * count);
+        if (rank < 1) rank = 1;
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                // Nunca reportar acima do máximo observado
+                return Math.min(upperBound(i), max);
+            }
+        }
+        return max;
+    }
+
+    public synchronized JSONObject toJson() throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("count", count);
+        if (count > 0) {
+            json.put("min", min);
+            json.put("max", max);
+            json.put("mean", sum / count);
+            json.put("p50", percentile(50));
+            json.put("p95", percentile(95));
+            json.put("p99", percentile(99));
+        }
+        return json;
+    }
+
+    private static int bucketFor(long valueMs) {
+        return (int) Math.ceil(Math.log1p(valueMs) / LOG_GROWTH);
+    }
+
+    private static long upperBound(int bucket) {
+        return (long) Math.floor(Math.expm1(bucket * LOG_GROWTH));
+    }
+}
@@ -0,0 +1,12 @@
+package com.youngmoney2.metrics;
+
+import org.json.JSONObject;
+
+/**
+ * MetricsExporter - Destino dos relatórios de sessão da roleta
+ *
+ * Chamado numa thread de fundo, nunca na UI thread.
+ */
+public interface MetricsExporter {
+    void export(JSONObject report);
+}
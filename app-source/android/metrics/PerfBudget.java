@@ -0,0 +1,75 @@
+package com.youngmoney2.metrics;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * PerfBudget - Limites de desempenho avaliados sobre o relatório da sessão
+ *
+ * Cada limite é um caminho no JSON da sessão (ex.: "histograms.spin_request.p95")
+ * e o valor máximo aceito. O resultado vai no próprio relatório exportado
+ * ("budget": passed + checks), para que uma rodada automatizada num
+ * dispositivo reprove a versão só lendo os arquivos JSON (tools/perfcheck).
+ * Avaliado apenas em builds debug.
+ * Métricas ausentes na sessão (ex.: nenhum giro feito) são ignoradas.
+ */
+public class PerfBudget {
+    private final Map<String, Long> limits = new LinkedHashMap<>();
+
+    /**
+     * Limites padrão da roleta
+     */
+    public static PerfBudget defaults() {
+        return new PerfBudget()
+                .limit("phases." + RouletteMetrics.PHASE_PAGE_FINISHED, 2000)
+                .limit("phases." + RouletteMetrics.PHASE_FIRST_INTERACTIVE_FRAME, 3000)
+                .limit("histograms." + RouletteMetrics.SPIN_REQUEST + ".p95", 1500)
+                .limit("histograms." + RouletteMetrics.SPIN_ANIMATION + ".p95", 5000)
+                .limit("counters." + RouletteMetrics.COUNTER_HTTP_BEFORE_INTERACTIVE, 2)
+                .limit("counters." + RouletteMetrics.COUNTER_BRIDGE_EVALUATIONS_PER_SPIN, 4)
+                .limit("counters." + RouletteMetrics.COUNTER_RETAINED_ACTIVITIES, 0);
+    }
+
+    public PerfBudget limit(String path, long max) {
+        limits.put(path, max);
+        return this;
+    }
+
+    public JSONObject evaluate(JSONObject session) throws JSONException {
+        JSONArray checks = new JSONArray();
+        boolean passed = true;
+        for (Map.Entry<String, Long> entry : limits.entrySet()) {
+            Long value = lookup(session, entry.getKey());
+            if (value == null) continue;
+
+            boolean ok = value <= entry.getValue();
+            passed &= ok;
+            JSONObject check = new JSONObject();
+            check.put("metric", entry.getKey());
+            check.put("value", value.longValue());
+            check.put("max", entry.getValue().longValue());
+            check.put("passed", ok);
+            checks.put(check);
+        }
+
+        JSONObject result = new JSONObject();
+        result.put("passed", passed);
+        result.put("checks", checks);
+        return result;
+    }
+
+    private static Long lookup(JSONObject json, String path) {
+        String[] keys = path.split("\\.");
+        JSONObject node = json;
+        for (int i = 0; i < keys.length - 1; i++) {
+            node = node.optJSONObject(keys[i]);
+            if (node == null) return null;
+        }
+        String last = keys[keys.length - 1];
+        return node.has(last) ? node.optLong(last) : null;
+    }
+}
@@ -0,0 +1,68 @@
+package com.youngmoney2.metrics;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * RetentionWatcher - Detecta telas destruídas que continuam na memória
+ *
+ * A activity se registra no onDestroy; na abertura seguinte, depois de um GC,
+ * as que ainda não foram coletadas contam como retidas (algo ainda as
+ * referencia: WebView, handler, callback de rede...). O número vai para as
+ * métricas da sessão e o PerfBudget reprova a sessão se for maior que zero,
+ * então um loop automatizado de abrir/fechar a roleta pega regressões de heap
+ * só lendo os relatórios JSON.
+ */
+public final class RetentionWatcher {
+    // Um único gc() não garante coleta (ART pode adiar): repetir com espera limitada
+    private static final int GC_ROUNDS = 5;
+    private static final long GC_WAIT_MS = 100;
+
+    private static final List<WeakReference<Object>> destroyed = new ArrayList<>();
+
+    private RetentionWatcher() {
+    }
+
+    public static synchronized void watch(Object destroyedInstance) {
+        destroyed.add(new WeakReference<>(destroyedInstance));
+    }
+
+    /**
+     * Força GCs (até GC_ROUNDS, com finalização e espera entre eles) e conta as
+     * instâncias observadas que continuam vivas. Para antes se todas forem coletadas.
+     * Custoso (até ~0,5s): chamar fora da UI thread e apenas em builds de debug.
+     */
+    public static long countRetained() {
+        long retained = prune();
+        for (int round = 0; round < GC_ROUNDS && retained > 0; round++) {
+            Runtime.getRuntime().gc();
+            System.runFinalization();
+            try {
+                Thread.sleep(GC_WAIT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            retained = prune();
+        }
+        return retained;
+    }
+
+    /**
+     * Remove as coletadas e devolve quantas continuam vivas
+     */
+    private static synchronized long prune() {
+        long retained = 0;
+        Iterator<WeakReference<Object>> iterator = destroyed.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().get() == null) {
+                iterator.remove();
+            } else {
+                retained++;
+            }
+        }
+        return retained;
+    }
+}
@@ -0,0 +1,278 @@
+package com.youngmoney2.metrics;
+
+import android.content.Context;
+import android.os.Build;
+import android.os.SystemClock;
+
+import com.youngmoney2.AppExecutors;
+import com.youngmoney2.BuildConfig;
+import com.youngmoney2.WebResourceCache;
+import com.youngmoney2.api.HttpJsonClient;
+import com.youngmoney2.utils.DiagLog;
+
+import org.json.JSONObject;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * RouletteMetrics - Tempos de inicialização e de giro da roleta
+ *
+ * Marcos de fase (mark) são medidos em relação ao início da sessão
+ * (attachBaseContext) e durações (record) são amostras avulsas, ambos com o
+ * relógio monotônico (SystemClock.elapsedRealtime). Cada métrica alimenta um
+ * histograma da sessão e um acumulado do processo; no fim da sessão o
+ * relatório (com dimensões como densidade de tela) vai para o exportador,
+ * por padrão um arquivo JSON local. Cada activity é dona da sua
+ * {@link Session}, devolvida por {@link #beginSession()}.
+ */
+public class RouletteMetrics {
+    private static final String TAG = "RouletteMetrics";
+
+    // Marcos da abertura (ms desde attachBaseContext)
+    public static final String PHASE_ATTACH_BASE_CONTEXT = "attach_base_context";
+    public static final String PHASE_ON_CREATE = "on_create";
+    public static final String PHASE_PAGE_FINISHED = "page_finished";
+    public static final String PHASE_SPIN_DATA_LOADED = "spin_data_loaded";
+    public static final String PHASE_TASK_STATUS_RESOLVED = "task_status_resolved";
+    public static final String PHASE_FIRST_INTERACTIVE_FRAME = "first_interactive_frame";
+
+    // Durações
+    public static final String APPLY_DPI = "apply_dpi";
+    public static final String SETUP_WEBVIEW = "setup_webview";
+    public static final String CREATE_WEBVIEW = "create_webview";
+    public static final String SPIN_REQUEST = "spin_request";
+    public static final String SPIN_BATCH_REQUEST = "spin_batch_request";
+    public static final String SPIN_ANIMATION = "spin_animation";
+    public static final String TASK_PAGE_OPEN = "task_page_open";
+
+    // Contadores da sessão
+    public static final String COUNTER_API_REQUESTS = "api_requests";
+    public static final String COUNTER_DIRECT_HTTP_REQUESTS = "direct_http_requests";
+    public static final String COUNTER_HTTP_BEFORE_INTERACTIVE = "http_requests_before_interactive";
+    public static final String COUNTER_SPINS = "spins";
+    public static final String COUNTER_SPIN_RETRIES = "spin_retries";
+    public static final String COUNTER_RESOURCE_CACHE_HITS = "resource_cache_hits";
+    public static final String COUNTER_RESOURCE_NETWORK_FETCHES = "resource_network_fetches";
+    public static final String COUNTER_RETAINED_ACTIVITIES = "retained_activities";
+    public static final String COUNTER_BRIDGE_EVALUATIONS = "bridge_evaluations";
+    public static final String COUNTER_BRIDGE_EVALUATIONS_PER_SPIN = "bridge_evaluations_per_spin";
+
+    private static RouletteMetrics instance;
+
+    private MetricsExporter exporter;
+    private PerfBudget budget = PerfBudget.defaults();
+
+    // Acumulado do processo (todas as sessões)
+    private final Map<String, LatencyHistogram> processHistograms = new LinkedHashMap<>();
+
+    public static synchronized RouletteMetrics getInstance(Context context) {
+        if (instance == null) {
+            Context appContext = context.getApplicationContext();
+            instance = new RouletteMetrics(new JsonFileMetricsExporter(
+                    (appContext != null ? appContext : context).getFilesDir()));
+        }
+        return instance;
+    }
+
+    private RouletteMetrics(MetricsExporter exporter) {
+        this.exporter = exporter;
+    }
+
+    public synchronized void setExporter(MetricsExporter exporter) {
+        this.exporter = exporter;
+    }
+
+    public synchronized void setBudget(PerfBudget budget) {
+        this.budget = budget;
+    }
+
+    public static long now() {
+        return SystemClock.elapsedRealtime();
+    }
+
+    /**
+     * Abre uma sessão que pertence a quem a criou (a activity). Sessões são
+     * independentes: encerrar a da activity antiga não afeta a da nova.
+     */
+    public Session beginSession() {
+        return new Session();
+    }
+
+    private synchronized void addProcessSample(String metric, long valueMs) {
+        histogram(processHistograms, metric).record(valueMs);
+    }
+
+    private synchronized void export(JSONObject session) throws Exception {
+        // Orçamento só em debug (rodadas de teste); release exporta apenas as medições
+        if (BuildConfig.DEBUG) {
+            JSONObject budgetResult = budget.evaluate(session);
+            session.put("budget", budgetResult);
+            if (!budgetResult.optBoolean("passed", true)) {
+                DiagLog.w(TAG, "⚠️ Sessão fora do orçamento de desempenho: {}", budgetResult);
+            }
+        }
+
+        JSONObject report = new JSONObject();
+        report.put("session", session);
+        report.put("process_histograms", toJson(processHistograms));
+
+        MetricsExporter target = exporter;
+        AppExecutors.disk().execute(() -> target.export(report));
+    }
+
+    /**
+     * Sessão de uma abertura da roleta: marcos, histogramas, dimensões e contadores
+     */
+    public final class Session {
+        private final long sessionStart = now();
+        private final long sessionWallStart = System.currentTimeMillis();
+        private final Map<String, Long> phases = new LinkedHashMap<>();
+        private final Map<String, LatencyHistogram> sessionHistograms = new LinkedHashMap<>();
+        private final Map<String, Object> dimensions = new LinkedHashMap<>();
+        private final Map<String, Long> counters = new LinkedHashMap<>();
+        private String cohort;
+        private final long directHttpAtStart = HttpJsonClient.getRequestCount();
+        private final long resourceHitsAtStart = WebResourceCache.getHitCount();
+        private final long resourceFetchesAtStart = WebResourceCache.getNetworkFetchCount();
+        private boolean ended;
+
+        private Session() {
+        }
+
+        public long now() {
+            return RouletteMetrics.now();
+        }
+
+        /**
+         * Dimensão do relatório (ex.: densidade de tela) para comparar grupos de aparelhos
+         */
+        public synchronized void setDimension(String key, Object value) {
+            dimensions.put(key, value);
+        }
+
+        /**
+         * Grupo de comparação: as amostras seguintes também entram nos histogramas
+         * do processo como "métrica.grupo" (ex.: phase.page_finished.pooled_webview
+         * contra .fresh_webview) e o grupo vira a dimensão "cohort" do relatório
+         */
+        public synchronized void setCohort(String cohort) {
+            this.cohort = cohort;
+            dimensions.put("cohort", cohort);
+        }
+
+        /**
+         * Registra o primeiro momento em que a sessão atinge a fase
+         */
+        public synchronized void mark(String phase) {
+            if (ended || phases.containsKey(phase)) return;
+            long offset = now() - sessionStart;
+            phases.put(phase, offset);
+            addSample("phase." + phase, offset);
+
+            if (PHASE_FIRST_INTERACTIVE_FRAME.equals(phase)) {
+                counters.put(COUNTER_HTTP_BEFORE_INTERACTIVE, getCounter(COUNTER_API_REQUESTS) + directHttpRequests());
+            }
+        }
+
+        public synchronized boolean hasMark(String phase) {
+            return phases.containsKey(phase);
+        }
+
+        /**
+         * Registra uma duração medida desde startedAt (valor de {@link #now()})
+         */
+        public void recordSince(String metric, long startedAt) {
+            record(metric, now() - startedAt);
+        }
+
+        public synchronized void record(String metric, long durationMs) {
+            if (ended) return;
+            addSample(metric, durationMs);
+        }
+
+        public synchronized void increment(String counter) {
+            counters.put(counter, getCounter(counter) + 1);
+        }
+
+        public synchronized void setCounter(String counter, long value) {
+            counters.put(counter, value);
+        }
+
+        public synchronized long getCounter(String counter) {
+            Long value = counters.get(counter);
+            return value != null ? value : 0;
+        }
+
+        /**
+         * Fecha a sessão e exporta o relatório numa thread de fundo (só a primeira chamada vale)
+         */
+        public synchronized void end() {
+            if (ended) return;
+            ended = true;
+            try {
+                JSONObject session = new JSONObject();
+                session.put("started_at", sessionWallStart);
+                session.put("duration_ms", now() - sessionStart);
+
+                JSONObject device = new JSONObject();
+                device.put("model", Build.MANUFACTURER + " " + Build.MODEL);
+                device.put("sdk", Build.VERSION.SDK_INT);
+                for (Map.Entry<String, Object> entry : dimensions.entrySet()) {
+                    device.put(entry.getKey(), entry.getValue());
+                }
+                session.put("device", device);
+
+                JSONObject phaseJson = new JSONObject();
+                for (Map.Entry<String, Long> entry : phases.entrySet()) {
+                    phaseJson.put(entry.getKey(), entry.getValue().longValue());
+                }
+                session.put("phases", phaseJson);
+                session.put("histograms", toJson(sessionHistograms));
+
+                counters.put(COUNTER_DIRECT_HTTP_REQUESTS, directHttpRequests());
+                counters.put(COUNTER_RESOURCE_CACHE_HITS, WebResourceCache.getHitCount() - resourceHitsAtStart);
+                counters.put(COUNTER_RESOURCE_NETWORK_FETCHES,
+                        WebResourceCache.getNetworkFetchCount() - resourceFetchesAtStart);
+                JSONObject counterJson = new JSONObject();
+                for (Map.Entry<String, Long> entry : counters.entrySet()) {
+                    counterJson.put(entry.getKey(), entry.getValue().longValue());
+                }
+                session.put("counters", counterJson);
+
+                export(session);
+            } catch (Exception e) {
+                DiagLog.e(TAG, "Erro ao montar relatório de métricas: {}", e.getMessage());
+            }
+        }
+
+        private long directHttpRequests() {
+            return HttpJsonClient.getRequestCount() - directHttpAtStart;
+        }
+
+        private void addSample(String metric, long valueMs) {
+            histogram(sessionHistograms, metric).record(valueMs);
+            addProcessSample(metric, valueMs);
+            if (cohort != null) {
+                addProcessSample(metric + "." + cohort, valueMs);
+            }
+        }
+    }
+
+    private static LatencyHistogram histogram(Map<String, LatencyHistogram> histograms, String metric) {
+        LatencyHistogram histogram = histograms.get(metric);
+        if (histogram == null) {
+            histogram = new LatencyHistogram();
+            histograms.put(metric, histogram);
+        }
+        return histogram;
+    }
+
+    private static JSONObject toJson(Map<String, LatencyHistogram> histograms) throws Exception {
+        JSONObject json = new JSONObject();
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            json.put(entry.getKey(), entry.getValue().toJson());
+        }
+        return json;
+    }
+}
@@ -0,0 +1,236 @@
+package com.youngmoney2.utils;
+
+import android.util.Log;
+
+import com.youngmoney2.BuildConfig;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * DiagLog - Fachada de log com níveis por tag e buffer circular de diagnóstico
+ *
+ * As mensagens são parametrizadas ("Giro: {} → {}") e só são montadas se o
+ * nível estiver ativo para a tag, então um log desligado não concatena nem
+ * formata nada. Em trechos quentes com argumentos primitivos, proteger a
+ * chamada com {@link #isLoggable} evita também o boxing.
+ *
+ * Eventos a partir de {@link #setRingLevel} (padrão INFO) ficam guardados num
+ * buffer circular pré-alocado, mesmo em release, e podem ser exportados pelo
+ * suporte com {@link #dump()}.
+ */
+public final class DiagLog {
+    public static final int VERBOSE = Log.VERBOSE;
+    public static final int DEBUG = Log.DEBUG;
+    public static final int INFO = Log.INFO;
+    public static final int WARN = Log.WARN;
+    public static final int ERROR = Log.ERROR;
+    // Acima de ERROR: desliga tudo
+    public static final int OFF = Log.ASSERT + 1;
+
+    private static final int RING_CAPACITY = 256;
+    private static final Object[] NONE = new Object[0];
+
+    private static volatile int defaultLevel = BuildConfig.DEBUG ? DEBUG : WARN;
+    private static volatile int ringLevel = INFO;
+    // Substituído por cópia (copy-on-write); lido sem lock
+    private static volatile Map<String, Integer> tagLevels = new HashMap<>();
+
+    // Buffer circular: arrays paralelos alocados uma única vez
+    private static final long[] ringTimes = new long[RING_CAPACITY];
+    private static final int[] ringLevels = new int[RING_CAPACITY];
+    private static final String[] ringTags = new String[RING_CAPACITY];
+    private static final String[] ringMessages = new String[RING_CAPACITY];
+    private static int ringNext;
+    private static int ringSize;
+
+    private DiagLog() {
+    }
+
+    public static void setDefaultLevel(int level) {
+        defaultLevel = level;
+    }
+
+    public static synchronized void setLevel(String tag, int level) {
+        Map<String, Integer> levels = new HashMap<>(tagLevels);
+        levels.put(tag, level);
+        tagLevels = levels;
+    }
+
+    /**
+     * Nível mínimo dos eventos guardados no buffer circular
+     */
+    public static void setRingLevel(int level) {
+        ringLevel = level;
+    }
+
+    public static boolean isLoggable(String tag, int level) {
+        return level >= levelFor(tag) || level >= ringLevel;
+    }
+
+    public static void d(String tag, String message) {
+        log(DEBUG, tag, message, null, NONE);
+    }
+
+    public static void d(String tag, String format, Object arg) {
+        if (isLoggable(tag, DEBUG)) log(DEBUG, tag, format, null, arg);
+    }
+
+    public static void d(String tag, String format, Object arg1, Object arg2) {
+        if (isLoggable(tag, DEBUG)) log(DEBUG, tag, format, null, arg1, arg2);
+    }
+
+    public static void d(String tag, String format, Object arg1, Object arg2, Object arg3) {
+        if (isLoggable(tag, DEBUG)) log(DEBUG, tag, format, null, arg1, arg2, arg3);
+    }
+
+    public static void d(String tag, String format, Object arg1, Object arg2, Object arg3, Object arg4) {
+        if (isLoggable(tag, DEBUG)) log(DEBUG, tag, format, null, arg1, arg2, arg3, arg4);
+    }
+
+    public static void i(String tag, String message) {
+        log(INFO, tag, message, null, NONE);
+    }
+
+    public static void i(String tag, String format, Object arg) {
+        if (isLoggable(tag, INFO)) log(INFO, tag, format, null, arg);
+    }
+
+    public static void i(String tag, String format, Object arg1, Object arg2) {
+        if (isLoggable(tag, INFO)) log(INFO, tag, format, null, arg1, arg2);
+    }
+
+    public static void w(String tag, String message) {
+        log(WARN, tag, message, null, NONE);
+    }
+
+    public static void w(String tag, String format, Object arg) {
+        if (isLoggable(tag, WARN)) log(WARN, tag, format, null, arg);
+    }
+
+    public static void w(String tag, String format, Object arg1, Object arg2) {
+        if (isLoggable(tag, WARN)) log(WARN, tag, format, null, arg1, arg2);
+    }
+
+    public static void w(String tag, String format, Object arg1, Object arg2, Object arg3) {
+        if (isLoggable(tag, WARN)) log(WARN, tag, format, null, arg1, arg2, arg3);
+    }
+
+    public static void e(String tag, String message) {
+        log(ERROR, tag, message, null, NONE);
+    }
+
+    public static void e(String tag, String format, Object arg) {
+        if (isLoggable(tag, ERROR)) log(ERROR, tag, format, null, arg);
+    }
+
+    public static void e(String tag, String format, Object arg1, Object arg2) {
+        if (isLoggable(tag, ERROR)) log(ERROR, tag, format, null, arg1, arg2);
+    }
+
+    public static void e(String tag, String message, Throwable error) {
+        log(ERROR, tag, message, error, NONE);
+    }
+
+    public static void e(String tag, String format, Object arg, Throwable error) {
+        if (isLoggable(tag, ERROR)) log(ERROR, tag, format, error, arg);
+    }
+
+    /**
+     * Eventos recentes do buffer circular, do mais antigo ao mais novo
+     */
+    public static String dump() {
+        SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss.SSS", Locale.US);
+        StringBuilder out = new StringBuilder();
+        synchronized (ringTimes) {
+            int start = (ringNext - ringSize + RING_CAPACITY) % RING_CAPACITY;
+            for (int i = 0; i < ringSize; i++) {
+                int index = (start + i) % RING_CAPACITY;
+                out.append(timeFormat.format(new Date(ringTimes[index])))
+                        .append(' ').append(levelName(ringLevels[index]))
+                        .append('/').append(ringTags[index])
+                        .append(": ").append(ringMessages[index])
+                        .append('\n');
+            }
+        }
+        return out.toString();
+    }
+
+    public static void clearRing() {
+        synchronized (ringTimes) {
+            for (int i = 0; i < RING_CAPACITY; i++) {
+                ringTags[i] = null;
+                ringMessages[i] = null;
+            }
+            ringNext = 0;
+            ringSize = 0;
+        }
+    }
+
+    private static int levelFor(String tag) {
+        Map<String, Integer> levels = tagLevels;
+        if (!levels.isEmpty()) {
+            Integer level = levels.get(tag);
+            if (level != null) return level;
+        }
+        return defaultLevel;
+    }
+
+    private static void log(int level, String tag, String format, Throwable error, Object... args) {
+        boolean toLogcat = level >= levelFor(tag);
+        boolean toRing = level >= ringLevel;
+        if (!toLogcat && !toRing) return;
+
+        String message = args.length == 0 ? format : format(format, args);
+        if (toLogcat) {
+            if (error != null) {
+                Log.println(level, tag, message + '\n' + Log.getStackTraceString(error));
+            } else {
+                Log.println(level, tag, message);
+            }
+        }
+        if (toRing) {
+            record(level, tag, error != null ? message + " (" + error + ")" : message);
+        }
+    }
+
+    private static void record(int level, String tag, String message) {
+        synchronized (ringTimes) {
+            ringTimes[ringNext] = System.currentTimeMillis();
+            ringLevels[ringNext] = level;
+            ringTags[ringNext] = tag;
+            ringMessages[ringNext] = message;
+            ringNext = (ringNext + 1) % RING_CAPACITY;
+            if (ringSize < RING_CAPACITY) ringSize++;
+        }
+    }
+
+    /**
+     * Substitui cada "{}" pelo próximo argumento
+     */
+    private static String format(String format, Object[] args) {
+        StringBuilder out = new StringBuilder(format.length() + 16 * args.length);
+        int argIndex = 0;
+        int from = 0;
+        int at;
+        while (argIndex < args.length && (at = format.indexOf("{}", from)) != -1) {
+            out.append(format, from, at).append(args[argIndex++]);
+            from = at + 2;
+        }
+        out.append(format, from, format.length());
+        return out.toString();
+    }
+
+    private static char levelName(int level) {
+        switch (level) {
+            case VERBOSE: return 'V';
+            case DEBUG: return 'D';
+            case INFO: return 'I';
+            case WARN: return 'W';
+            default: return 'E';
+        }
+    }
+}
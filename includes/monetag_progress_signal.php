@@ -0,0 +1,59 @@
+<?php
+/**
+ * MoniTag Progress Signal - Aviso de mudança no progresso da tarefa por usuário
+ *
+ * Quem grava eventos em monetag_events (postback.php, track.php) chama
+ * notifyMonetagProgress() depois do INSERT. progress_wait.php segura a
+ * requisição observando só a versão do usuário (um stat de arquivo, sem
+ * consultar o banco) e consulta o progresso uma vez quando ela muda.
+ *
+ * Os arquivos ficam em sys_get_temp_dir() (mesmo padrão do cache em
+ * roulette_settings_cache.php), então o aviso vale para a instância que
+ * recebeu o evento. Eventos gravados por outra instância ou serviço são
+ * cobertos pela reconferência periódica de progress_wait.php.
+ */
+
+function monetagProgressSignalDir() {
+    return sys_get_temp_dir() . '/monetag_progress';
+}
+
+function monetagProgressSignalFile($userId) {
+    return monetagProgressSignalDir() . '/' . (int)$userId;
+}
+
+/**
+ * Versão atual do progresso do usuário (0 se nunca houve aviso nesta instância)
+ */
+function monetagProgressVersion($userId) {
+    $version = @file_get_contents(monetagProgressSignalFile($userId));
+    return $version !== false ? (int)$version : 0;
+}
+
+/**
+ * Marca que o progresso do usuário mudou (nova versão, escrita atômica)
+ */
+function notifyMonetagProgress($userId) {
+    $dir = monetagProgressSignalDir();
+    if (!is_dir($dir) && !@mkdir($dir, 0700, true) && !is_dir($dir)) {
+        return;
+    }
+    // Microssegundos: sempre maior que a versão anterior, mesmo com eventos no mesmo segundo
+    $version = (string)(int)(microtime(true) * 1000000);
+    $tmpFile = @tempnam($dir, 'signal_');
+    if ($tmpFile === false) {
+        return;
+    }
+    if (@file_put_contents($tmpFile, $version) === false || !@rename($tmpFile, monetagProgressSignalFile($userId))) {
+        @unlink($tmpFile);
+    }
+}
+
+/**
+ * Apaga os avisos (reset diário): a versão volta a 0 e quem espera reconfere o banco
+ */
+function clearMonetagProgressSignals() {
+    foreach (glob(monetagProgressSignalDir() . '/*') ?: [] as $file) {
+        @unlink($file);
+    }
+}
+?>
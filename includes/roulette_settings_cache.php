@@ -0,0 +1,84 @@
+<?php
+/**
+ * Roulette Settings Cache - Cache das configurações da roleta (roulette_settings)
+ *
+ * spin.php e spin_batch.php liam a tabela inteira a cada abertura da roleta.
+ * As configurações mudam raramente, então ficam num arquivo em
+ * sys_get_temp_dir() (mesmo padrão do cache de cotação em withdrawal_config.php).
+ *
+ * Quem altera roulette_settings chama invalidateRouletteSettingsCache() após
+ * gravar; o TTL curto cobre alterações feitas direto no banco.
+ */
+
+define('ROULETTE_SETTINGS_CACHE_TTL', 60);
+define('ROULETTE_DEFAULT_PRIZES', [100, 250, 500, 750, 1000, 1500, 2000, 5000]);
+define('ROULETTE_DEFAULT_MAX_DAILY_SPINS', 10);
+
+function rouletteSettingsCacheFile() {
+    return sys_get_temp_dir() . '/roulette_settings_cache.json';
+}
+
+/**
+ * Retorna todas as configurações (setting_key => setting_value), do cache quando válido
+ */
+function getRouletteSettings($conn) {
+    $cacheFile = rouletteSettingsCacheFile();
+    $cached = @file_get_contents($cacheFile);
+    if ($cached !== false) {
+        $cacheData = json_decode($cached, true);
+        if ($cacheData && (time() - $cacheData['timestamp']) < ROULETTE_SETTINGS_CACHE_TTL) {
+            return $cacheData['settings'];
+        }
+    }
+
+    $settings = [];
+    $stmt = $conn->prepare("SELECT setting_key, setting_value FROM roulette_settings ORDER BY setting_key");
+    $stmt->execute();
+    $result = $stmt->get_result();
+    while ($row = $result->fetch_assoc()) {
+        $settings[$row['setting_key']] = $row['setting_value'];
+    }
+    $stmt->close();
+
+    // Escrita atômica: leitores simultâneos nunca veem um arquivo pela metade.
+    // tempnam() gera um nome único por escrita (no FrankenPHP várias threads
+    // compartilham o mesmo getmypid()) no mesmo diretório, para o rename ser atômico.
+    $tmpFile = @tempnam(dirname($cacheFile), 'roulette_settings_');
+    if ($tmpFile !== false) {
+        if (@file_put_contents($tmpFile, json_encode(['timestamp' => time(), 'settings' => $settings])) === false
+            || !@rename($tmpFile, $cacheFile)) {
+            @unlink($tmpFile);
+        }
+    }
+    return $settings;
+}
+
+/**
+ * Prêmios (prize_*, em ordem de chave) e limite diário, com os padrões da roleta
+ */
+function getRoulettePrizeConfig($conn) {
+    $prizeValues = [];
+    $maxDailySpins = ROULETTE_DEFAULT_MAX_DAILY_SPINS;
+
+    try {
+        foreach (getRouletteSettings($conn) as $key => $value) {
+            if ($key === 'max_daily_spins') {
+                $maxDailySpins = (int)$value;
+            } elseif (strpos($key, 'prize_') === 0) {
+                $prizeValues[] = (int)$value;
+            }
+        }
+    } catch (Exception $e) {
+        error_log("[ROULETTE] Erro ao ler roulette_settings: " . $e->getMessage());
+    }
+
+    if (empty($prizeValues)) {
+        $prizeValues = ROULETTE_DEFAULT_PRIZES;
+    }
+    return [$prizeValues, $maxDailySpins];
+}
+
+function invalidateRouletteSettingsCache() {
+    @unlink(rouletteSettingsCacheFile());
+}
+?>
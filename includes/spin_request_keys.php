@@ -0,0 +1,81 @@
+<?php
+/**
+ * Spin Request Keys - Chaves de idempotência dos giros (tabela spin_requests)
+ *
+ * api/v1/spin.php e api/v1/spin_batch.php recebem uma chave por giro (ou por
+ * lote) gerada pelo app e reenviada nas novas tentativas. Cada chave é
+ * liquidada uma única vez: a reserva acontece dentro da transação do giro e
+ * a resposta é gravada antes do commit, então uma repetição recebe a resposta
+ * original (replayed=true) em vez de consumir outro giro.
+ *
+ * Sem a tabela (migrations/create_spin_requests.sql ainda não aplicada) os
+ * giros seguem sem chave, como antes.
+ */
+
+// Chave enviada pelo app no body (request_id) ou no header Idempotency-Key
+function readSpinRequestKey($requestData) {
+    $requestKey = $requestData['request_id'] ?? $_SERVER['HTTP_IDEMPOTENCY_KEY'] ?? null;
+    if ($requestKey !== null && !preg_match('/^[A-Za-z0-9-]{8,64}$/', $requestKey)) {
+        return null;
+    }
+    return $requestKey;
+}
+
+// Tabela de chaves presente? (deploy antes da migração: processar o giro sem chave)
+function spinRequestsAvailable($conn) {
+    try {
+        return $conn->query("SELECT 1 FROM spin_requests LIMIT 0") !== false;
+    } catch (Exception $e) {
+        return false;
+    }
+}
+
+// Se a chave do giro já foi liquidada, reenviar a resposta original e encerrar
+function replayStoredSpin($conn, $userId, $requestKey) {
+    $stmt = $conn->prepare("
+        SELECT response FROM spin_requests
+        WHERE user_id = ? AND request_key = ? AND response IS NOT NULL
+    ");
+    $stmt->bind_param("is", $userId, $requestKey);
+    $stmt->execute();
+    $row = $stmt->get_result()->fetch_assoc();
+    $stmt->close();
+
+    if ($row) {
+        $response = json_decode($row['response'], true);
+        $response['data']['replayed'] = true;
+        echo json_encode($response);
+        exit;
+    }
+}
+
+// Reservar a chave dentro da transação: uma repetição concorrente espera este
+// commit no índice único e falha com chave duplicada (código 1062)
+function reserveSpinRequest($conn, $userId, $requestKey) {
+    $stmt = $conn->prepare("
+        INSERT INTO spin_requests (user_id, request_key, created_at)
+        VALUES (?, ?, NOW())
+    ");
+    $stmt->bind_param("is", $userId, $requestKey);
+    if (!$stmt->execute()) {
+        $errno = $stmt->errno;
+        $stmt->close();
+        throw new Exception("Chave de giro duplicada", $errno);
+    }
+    $stmt->close();
+}
+
+// Guardar a resposta para as repetições da mesma chave (antes do commit)
+function storeSpinResponse($conn, $userId, $requestKey, $response) {
+    $stmt = $conn->prepare("UPDATE spin_requests SET response = ? WHERE user_id = ? AND request_key = ?");
+    $storedResponse = json_encode($response);
+    $stmt->bind_param("sis", $storedResponse, $userId, $requestKey);
+    $stmt->execute();
+    $stmt->close();
+}
+
+// Erros do MySQL que podem não se repetir numa nova tentativa com a mesma chave
+function isTransientSpinError(Exception $e) {
+    // 1205 lock wait timeout, 1213 deadlock, 2002/2006/2013 conexão perdida ou recusada
+    return in_array((int)$e->getCode(), [1205, 1213, 2002, 2006, 2013], true);
+}
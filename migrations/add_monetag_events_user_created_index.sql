@@ -0,0 +1,7 @@
+-- Migration: Índice para o progresso diário da tarefa Monetag
+-- monetag/progress_wait.php (consultado pelo app enquanto a roleta está aberta)
+-- conta impressões e cliques do usuário no intervalo do dia em created_at.
+-- Com este índice a contagem sai só do índice, sem varrer a tabela.
+
+ALTER TABLE monetag_events
+ADD INDEX idx_user_created_type (user_id, created_at, event_type);
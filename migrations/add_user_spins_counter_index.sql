@@ -0,0 +1,8 @@
+-- Migration: Índice para os contadores de giros da roleta
+-- api/v1/spin.php e spin_batch.php contam giros disponíveis (is_used = 0) e
+-- usados hoje (intervalo de used_at) por usuário a cada abertura/giro. Com
+-- este índice as duas contagens saem de uma única leitura do índice, sem
+-- varrer as linhas da tabela.
+
+ALTER TABLE user_spins
+ADD INDEX idx_user_used_at (user_id, is_used, used_at);
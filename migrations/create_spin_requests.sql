@@ -0,0 +1,19 @@
+-- Migration: Criar tabela de chaves de idempotência dos giros
+-- O app envia um request_id por giro e o reenvia nas novas tentativas;
+-- api/v1/spin.php liquida cada chave uma única vez e devolve a resposta
+-- original quando a mesma chave chega de novo (sem crédito em dobro).
+--
+-- Ordem de deploy: aplicar esta migração ANTES de publicar o spin.php novo.
+-- Se a tabela não existir, spin.php processa o giro sem chave (como antes,
+-- sem proteção contra crédito em dobro) e registra o aviso no error_log.
+-- Chaves com mais de 2 dias são apagadas no reset diário (cron/auto_reset.php).
+
+CREATE TABLE IF NOT EXISTS spin_requests (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    user_id INT NOT NULL,
+    request_key VARCHAR(64) NOT NULL COMMENT 'Chave gerada pelo app (UUID)',
+    response TEXT NULL COMMENT 'JSON devolvido na primeira execução',
+    created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE KEY uniq_user_request (user_id, request_key),
+    INDEX idx_created_at (created_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
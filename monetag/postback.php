@@ -17,6 +17,7 @@ require_once __DIR__ . '/../cors.php';
 header('Content-Type: application/json');
 
 require_once __DIR__ . '/../database.php';
+require_once __DIR__ . '/../includes/monetag_progress_signal.php';
 
 function sendSuccess($data = []) {
     echo json_encode(['success' => true, 'data' => $data]);
@@ -134,6 +135,7 @@ try {
     $stmt->execute();
     $event_id = $stmt->insert_id;
     $stmt->close();
+    notifyMonetagProgress($user_id);
     
     error_log("MoniTag Postback - Event registered: ID=$event_id, user_id=$user_id, type=$type, time=" . date('Y-m-d H:i:s'));
     
@@ -0,0 +1,188 @@
+<?php
+/**
+ * MoniTag Progress Wait Endpoint
+ * GET - Long-poll do estado da tarefa: responde quando o progresso muda (SEM AUTENTICAÇÃO)
+ *
+ * URL: /monetag/progress_wait.php?user_id={user_id}&since={0|1}&version={v}&checked_at={ts}&timeout={s}
+ *
+ * - since: último all_completed conhecido pelo app; sem ele, responde na hora
+ * - version / checked_at: devolvidos pela resposta anterior
+ * - timeout: tempo máximo segurando a requisição (padrão 25s, máximo 30s)
+ *
+ * Enquanto segura, não consulta o banco nem mantém conexão aberta: observa a
+ * versão do usuário que postback.php/track.php atualizam ao gravar um evento
+ * (includes/monetag_progress_signal.php) e só consulta o progresso quando ela
+ * muda. Sem aviso, o banco é reconferido no máximo a cada WAIT_RECHECK_SECONDS
+ * (cobre eventos gravados por outra instância).
+ *
+ * No máximo WAIT_MAX_HOLDERS requisições ficam seguradas ao mesmo tempo
+ * (cada uma ocupa uma thread do PHP); acima disso responde na hora com
+ * retry_after maior. Mesmo formato de progress.php, mais changed, version,
+ * checked_at e retry_after (segundos até reconectar; 0 = reconectar já).
+ */
+
+// DEFINIR TIMEZONE NO INÍCIO DO ARQUIVO
+date_default_timezone_set('America/Sao_Paulo');
+
+// CORS MUST be first
+require_once __DIR__ . '/../cors.php';
+
+header('Content-Type: application/json');
+header('Cache-Control: no-cache');
+
+require_once __DIR__ . '/../database.php';
+require_once __DIR__ . '/../includes/monetag_progress_signal.php';
+
+define('WAIT_DEFAULT_TIMEOUT', 25);
+define('WAIT_MAX_TIMEOUT', 30);
+define('WAIT_RECHECK_SECONDS', 120);
+define('WAIT_MAX_HOLDERS', 16);
+define('WAIT_SIGNAL_INTERVAL_US', 500000);
+// Sem vaga para segurar: reconectar depois de um tempo
+define('WAIT_RETRY_BUSY', 30);
+// Concluída só muda no reset diário
+define('WAIT_RETRY_COMPLETED', 300);
+
+// Mesmos requisitos fixos de progress.php
+define('WAIT_REQUIRED_IMPRESSIONS', 20);
+define('WAIT_REQUIRED_CLICKS', 2);
+
+function sendSuccess($data = []) {
+    echo json_encode(['success' => true, 'data' => $data]);
+    exit;
+}
+
+function sendError($message, $code = 400) {
+    http_response_code($code);
+    echo json_encode(['success' => false, 'error' => $message]);
+    exit;
+}
+
+/**
+ * Contagens do dia (intervalo em created_at, usa o índice); abre e fecha a conexão
+ */
+function queryProgress($user_id) {
+    $conn = getDbConnection();
+    $today = date('Y-m-d');
+    $tomorrow = date('Y-m-d', strtotime('+1 day'));
+    $stmt = $conn->prepare("
+        SELECT
+            COUNT(CASE WHEN event_type = 'impression' THEN 1 END) as impressions,
+            COUNT(CASE WHEN event_type = 'click' THEN 1 END) as clicks
+        FROM monetag_events
+        WHERE user_id = ? AND created_at >= ? AND created_at < ?
+    ");
+    $stmt->bind_param("iss", $user_id, $today, $tomorrow);
+    $stmt->execute();
+    $progress = $stmt->get_result()->fetch_assoc();
+    $stmt->close();
+    $conn->close();
+
+    $impressions = (int)$progress['impressions'];
+    $clicks = (int)$progress['clicks'];
+    return [
+        'impressions' => $impressions,
+        'clicks' => $clicks,
+        'required_impressions' => WAIT_REQUIRED_IMPRESSIONS,
+        'required_clicks' => WAIT_REQUIRED_CLICKS,
+        'impressions_completed' => $impressions >= WAIT_REQUIRED_IMPRESSIONS,
+        'clicks_completed' => $clicks >= WAIT_REQUIRED_CLICKS,
+        'all_completed' => $impressions >= WAIT_REQUIRED_IMPRESSIONS && $clicks >= WAIT_REQUIRED_CLICKS
+    ];
+}
+
+function sendProgress($progress, $changed, $version, $checked_at, $retry_after) {
+    sendSuccess($progress + [
+        'changed' => $changed,
+        'version' => $version,
+        'checked_at' => $checked_at,
+        'retry_after' => $retry_after,
+        'server_time' => date('Y-m-d H:i:s'),
+        'timezone' => 'America/Sao_Paulo'
+    ]);
+}
+
+/**
+ * Vaga para segurar a requisição (flock não bloqueante); null se todas ocupadas
+ */
+function acquireWaitSlot() {
+    $dir = sys_get_temp_dir() . '/monetag_wait_slots';
+    if (!is_dir($dir)) {
+        @mkdir($dir, 0700, true);
+    }
+    for ($i = 0; $i < WAIT_MAX_HOLDERS; $i++) {
+        $handle = @fopen($dir . '/slot_' . $i . '.lock', 'c');
+        if ($handle === false) {
+            continue;
+        }
+        if (flock($handle, LOCK_EX | LOCK_NB)) {
+            return $handle;
+        }
+        fclose($handle);
+    }
+    return null;
+}
+
+// Apenas GET
+if ($_SERVER['REQUEST_METHOD'] !== 'GET') {
+    sendError('Método não permitido', 405);
+}
+
+$user_id = $_GET['user_id'] ?? null;
+
+if (!$user_id || !is_numeric($user_id)) {
+    sendError('user_id é obrigatório e deve ser numérico');
+}
+
+$user_id = (int)$user_id;
+$since = isset($_GET['since']) ? $_GET['since'] === '1' : null;
+$client_version = isset($_GET['version']) ? (int)$_GET['version'] : -1;
+$checked_at = isset($_GET['checked_at']) ? (int)$_GET['checked_at'] : 0;
+$timeout = max(1, min((int)($_GET['timeout'] ?? WAIT_DEFAULT_TIMEOUT), WAIT_MAX_TIMEOUT));
+
+try {
+    $version = monetagProgressVersion($user_id);
+
+    // Consultar o banco só sem estado conhecido, com aviso novo ou com a reconferência vencida
+    if ($since === null || $client_version !== $version || time() - $checked_at >= WAIT_RECHECK_SECONDS) {
+        $progress = queryProgress($user_id);
+        $checked_at = time();
+        if ($progress['all_completed']) {
+            sendProgress($progress, $progress['all_completed'] !== $since, $version, $checked_at, WAIT_RETRY_COMPLETED);
+        }
+        if ($since === null || $progress['all_completed'] !== $since) {
+            sendProgress($progress, true, $version, $checked_at, 0);
+        }
+    }
+
+    $slot = acquireWaitSlot();
+    if ($slot === null) {
+        sendProgress(['all_completed' => $since], false, $version, $checked_at, WAIT_RETRY_BUSY);
+    }
+
+    // Segurar até o aviso do usuário mudar ou o timeout
+    set_time_limit($timeout + 10);
+    $deadline = microtime(true) + $timeout;
+    while (microtime(true) < $deadline) {
+        usleep(WAIT_SIGNAL_INTERVAL_US);
+        $current = monetagProgressVersion($user_id);
+        if ($current === $version) {
+            continue;
+        }
+
+        flock($slot, LOCK_UN);
+        fclose($slot);
+        $progress = queryProgress($user_id);
+        $retry_after = $progress['all_completed'] ? WAIT_RETRY_COMPLETED : 0;
+        sendProgress($progress, $progress['all_completed'] !== $since, $current, time(), $retry_after);
+    }
+
+    flock($slot, LOCK_UN);
+    fclose($slot);
+    sendProgress(['all_completed' => $since], false, $version, $checked_at, 0);
+
+} catch (Exception $e) {
+    error_log("MoniTag Progress Wait Error: " . $e->getMessage());
+    sendError('Erro ao consultar progresso: ' . $e->getMessage(), 500);
+}
+?>
@@ -0,0 +1,936 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * RouletteLoadTest - Gerador de carga que simula aparelhos abrindo a roleta
+ *
+ * Cada usuário simulado é uma virtual thread que repete o padrão de chamadas
+ * da SpinWheelActivity:
+ * - Abertura (onCreate): um bootstrap (spin.php GET), que já traz o bloco
+ *   task_progress. Só sem ele (ou com o bootstrap falhando) entram progresso e
+ *   estatísticas da tarefa em paralelo (TaskStatusResolver)
+ * - Em primeiro plano: long-poll em monetag/progress_wait.php com since,
+ *   version, checked_at e timeout, reconectando após o retry_after da
+ *   resposta (TaskStatusWatcher)
+ * - Giros manuais (spin.php POST idempotente, cópia após 2,5s sem resposta e
+ *   novas tentativas com backoff até o prazo, como o RetryingSpinRequest) ou
+ *   auto-spin (spin_batch.php liquidando até 3 giros à frente com request_id,
+ *   ou rajada de spin.php POST com --batch false)
+ * - Idas à página de tarefas: onPause encerra o long-poll e onResume só o
+ *   reabre, com a versão e a conferência da última resposta (sem bootstrap)
+ *
+ * Usuários chegam num processo de Poisson (--arrival-rate por segundo) e as
+ * pausas entre ações são exponenciais com média --think-ms. Ao final, mostra
+ * vazão e p50/p95/p99 por endpoint.
+ *
+ * Roda sem build, com Java 21+:
+ *   java tools/loadtest/RouletteLoadTest.java --stub --users 5000 --arrival-rate 200
+ *   java tools/loadtest/RouletteLoadTest.java --base-url http://localhost:8080 \
+ *        --users-file usuarios.csv --users 2000 --duration-s 600
+ *
+ * Contra o PHP/MySQL local, --users-file lista "user_id,token" (um por linha)
+ * de usuários de teste com giros disponíveis; com --stub, um servidor falso
+ * embutido responde no lugar da API (útil para calibrar o próprio gerador).
+ */
+public class RouletteLoadTest {
+    static final String SPIN_PATH = "api/v1/spin.php";
+    static final String SPIN_BATCH_PATH = "api/v1/spin_batch.php";
+    static final String PROGRESS_PATH = "monetag/progress.php";
+    static final String PROGRESS_WAIT_PATH = "monetag/progress_wait.php";
+
+    // Mesmos limites do RetryingSpinRequest do app (SPIN_REQUEST_DEADLINE_MS e SPIN_HEDGE_DELAY_MS)
+    static final int SPIN_MAX_ATTEMPTS = 4;
+    static final long SPIN_BACKOFF_BASE_MS = 300;
+    static final long SPIN_BACKOFF_CAP_MS = 3000;
+    static final long SPIN_DEADLINE_MS = 10000;
+    static final long SPIN_HEDGE_DELAY_MS = 2500;
+    static final long REQUEST_TIMEOUT_MS = 30000;
+    // Mesmo long-poll do TaskStatusWatcher do app
+    static final int WAIT_HOLD_SECONDS = 25;
+    static final long WAIT_READ_TIMEOUT_MS = (WAIT_HOLD_SECONDS + 10) * 1000L;
+    static final int WAIT_MAX_RETRY_AFTER_SECONDS = 600;
+    static final long POLL_RETRY_MIN_MS = 2000;
+    static final long POLL_RETRY_MAX_MS = 60000;
+    static final int POLL_MAX_FAILURES = 6;
+    // Giros liquidados à frente por lote no auto-spin (AUTO_SPIN_LOOKAHEAD do app)
+    static final int AUTO_SPIN_LOOKAHEAD = 3;
+
+    static final Pattern SPINS_REMAINING = Pattern.compile("\"spins_remaining\"\\s*:\\s*(\\d+)");
+    static final Pattern RETRYABLE = Pattern.compile("\"retryable\"\\s*:\\s*true");
+    static final Pattern SUCCESS = Pattern.compile("\"(status\"\\s*:\\s*\"success|success\"\\s*:\\s*true)");
+    static final Pattern TASK_PROGRESS = Pattern.compile("\"task_progress\"\\s*:\\s*\\{");
+    static final Pattern ALL_COMPLETED = Pattern.compile("\"all_completed\"\\s*:\\s*(true|false)");
+    static final Pattern CHANGED = Pattern.compile("\"changed\"\\s*:\\s*true");
+    static final Pattern VERSION = Pattern.compile("\"version\"\\s*:\\s*(-?\\d+)");
+    static final Pattern CHECKED_AT = Pattern.compile("\"checked_at\"\\s*:\\s*(\\d+)");
+    static final Pattern RETRY_AFTER = Pattern.compile("\"retry_after\"\\s*:\\s*(\\d+)");
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        StubServer stub = null;
+        if (options.stub) {
+            stub = StubServer.start(options.stubPort, options.stubLatencyMs);
+            options.baseUrl = "http://localhost:" + stub.port() + "/";
+            System.out.println("🧪 Servidor falso em " + options.baseUrl);
+        }
+
+        List<UserAccount> accounts = options.usersFile != null
+                ? UserAccount.load(Path.of(options.usersFile))
+                : UserAccount.generate(options.users);
+        if (accounts.isEmpty()) {
+            System.err.println("❌ Nenhum usuário em " + options.usersFile);
+            System.exit(2);
+        }
+
+        new RouletteLoadTest(options, accounts).run();
+        if (stub != null) stub.stop();
+    }
+
+    private final Options options;
+    private final List<UserAccount> accounts;
+    private final HttpClient http;
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+    private final AtomicInteger activeUsers = new AtomicInteger();
+    private final AtomicInteger finishedUsers = new AtomicInteger();
+    private final LongAdder spinRetries = new LongAdder();
+    private final LongAdder spinHedges = new LongAdder();
+    private final LongAdder statusFallbacks = new LongAdder();
+    private final LongAdder waitChanged = new LongAdder();
+    private final LongAdder waitDeferred = new LongAdder();
+    private final long startedAt = System.nanoTime();
+    private final long deadline;
+
+    RouletteLoadTest(Options options, List<UserAccount> accounts) {
+        this.options = options;
+        this.accounts = accounts;
+        this.deadline = startedAt + TimeUnit.SECONDS.toNanos(options.durationSeconds);
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        for (String name : new String[] {"bootstrap", "progress", "stats", "progress_wait",
+                "spin", "spin_batch"}) {
+            stats.put(name, new EndpointStats(name));
+        }
+    }
+
+    void run() throws InterruptedException {
+        System.out.printf(Locale.ROOT, "🚀 %d usuários, %.1f chegadas/s, pausa média %dms, até %ds contra %s%n",
+                options.users, options.arrivalRate, options.thinkMs, options.durationSeconds, options.baseUrl);
+
+        Thread reporter = Thread.ofVirtual().start(this::reportPeriodically);
+        try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < options.users && System.nanoTime() < deadline; i++) {
+                UserAccount account = accounts.get(i % accounts.size());
+                users.execute(() -> runUser(account));
+                sleepMillis(exponential(1000.0 / options.arrivalRate));
+            }
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            users.shutdown();
+            if (!users.awaitTermination(Math.max(remaining, 0), TimeUnit.MILLISECONDS)) {
+                System.out.println("⏱️ Tempo esgotado, encerrando " + activeUsers.get() + " usuários ativos");
+                users.shutdownNow();
+            }
+        }
+        reporter.interrupt();
+        printReport();
+    }
+
+    /**
+     * Uma sessão da roleta, da abertura ao fechamento
+     */
+    private void runUser(UserAccount account) {
+        activeUsers.incrementAndGet();
+        Watcher watcher = null;
+        try {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            boolean autoSpin = random.nextDouble() < options.autoSpinRatio;
+
+            // onCreate: um bootstrap; o long-poll começa com o status que ele trouxe
+            WaitCursor cursor = new WaitCursor();
+            int spinsRemaining = openRoulette(account, cursor);
+            watcher = Watcher.start(this, account, cursor);
+
+            // Sem giros o usuário ainda volta da página de tarefas: cada volta é um onResume
+            for (int visit = 0; visit <= options.resumes && running(); visit++) {
+                if (visit > 0) {
+                    // Página de tarefas aberta: onPause encerra o long-poll, onResume só o reabre
+                    watcher.stop();
+                    sleepMillis(exponential(options.taskPageMs));
+                    if (!running()) break;
+                    watcher = Watcher.start(this, account, cursor);
+                }
+
+                if (spinsRemaining <= 0) continue;
+                sleepMillis(exponential(options.thinkMs));
+                if (autoSpin) {
+                    spinsRemaining = autoSpin(account, spinsRemaining);
+                } else {
+                    spinsRemaining = spinManually(account, spinsRemaining);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (watcher != null) watcher.stop();
+            activeUsers.decrementAndGet();
+            finishedUsers.incrementAndGet();
+        }
+    }
+
+    /**
+     * Bootstrap da abertura. Sem o bloco task_progress (ou com falha) o app cai
+     * no TaskStatusResolver: progresso e estatísticas em paralelo.
+     *
+     * @return giros disponíveis informados pelo bootstrap (0 se falhou)
+     */
+    private int openRoulette(UserAccount account, WaitCursor cursor) throws InterruptedException {
+        Result result = send("bootstrap", get(account, SPIN_PATH));
+        if (result.ok && TASK_PROGRESS.matcher(result.body).find()) {
+            cursor.known = booleanField(result.body, ALL_COMPLETED);
+        } else {
+            statusFallbacks.increment();
+            CompletableFuture<Result> progress = sendAsync("progress",
+                    get(account, PROGRESS_PATH + "?user_id=" + account.userId));
+            CompletableFuture<Result> taskStats = sendAsync("stats",
+                    get(account, options.statsPath + account.userId));
+            Result progressResult = await(progress);
+            await(taskStats);
+            if (progressResult.ok) cursor.known = booleanField(progressResult.body, ALL_COMPLETED);
+        }
+        return result.ok ? intField(result.body, SPINS_REMAINING, 0) : 0;
+    }
+
+    private int spinManually(UserAccount account, int spinsRemaining) throws InterruptedException {
+        while (spinsRemaining > 0 && running()) {
+            Result result = spinOnce(account);
+            if (!result.ok) return 0;
+            spinsRemaining = intField(result.body, SPINS_REMAINING, spinsRemaining - 1);
+            // Animação da roleta e pausa até o próximo toque
+            sleepMillis(options.animationMs + exponential(options.thinkMs));
+        }
+        return spinsRemaining;
+    }
+
+    private int autoSpin(UserAccount account, int spinsRemaining) throws InterruptedException {
+        if (options.batch) {
+            while (spinsRemaining > 0 && running()) {
+                int count = Math.min(spinsRemaining, AUTO_SPIN_LOOKAHEAD);
+                Result result = spinBatch(account, count);
+                if (!result.ok) return 0;
+                int left = intField(result.body, SPINS_REMAINING, spinsRemaining - count);
+                // Prêmios do lote animados um após o outro, sem rede
+                sleepMillis((spinsRemaining - left) * options.animationMs);
+                spinsRemaining = left;
+            }
+            return spinsRemaining;
+        }
+        while (spinsRemaining > 0 && running()) {
+            Result result = spinOnce(account);
+            if (!result.ok) return 0;
+            spinsRemaining = intField(result.body, SPINS_REMAINING, spinsRemaining - 1);
+            sleepMillis(options.animationMs);
+        }
+        return spinsRemaining;
+    }
+
+    /**
+     * Giro idempotente como o RetryingSpinRequest: a mesma chave em todas as
+     * requisições, uma cópia (hedge) se a primeira não responder em
+     * SPIN_HEDGE_DELAY_MS e novas tentativas com backoff até o prazo
+     */
+    private Result spinOnce(UserAccount account) throws InterruptedException {
+        String requestId = UUID.randomUUID().toString();
+        String body = "{\"request_id\":\"" + requestId + "\"}";
+        long startedAt = System.nanoTime();
+        int attempts = 1;
+        CompletableFuture<Result> first = sendAsync("spin", post(account, SPIN_PATH, body, requestId));
+        Result result = awaitWithin(first, SPIN_HEDGE_DELAY_MS);
+        if (result == null) {
+            // Vale a primeira resposta final; a outra requisição segue sem ser cancelada, como no app
+            spinHedges.increment();
+            attempts++;
+            CompletableFuture<Result> copy = sendAsync("spin", post(account, SPIN_PATH, body, requestId));
+            result = awaitAny(first, copy);
+            if (!isFinal(result)) {
+                Result original = await(first);
+                result = isFinal(original) ? original : await(copy);
+            }
+        }
+
+        while (!isFinal(result) && running()) {
+            long delay = spinBackoff(attempts);
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+            if (attempts >= SPIN_MAX_ATTEMPTS || elapsed + delay >= SPIN_DEADLINE_MS) break;
+            spinRetries.increment();
+            sleepMillis(delay);
+            attempts++;
+            result = send("spin", post(account, SPIN_PATH, body, requestId));
+        }
+        return result;
+    }
+
+    /**
+     * Lote do auto-spin: a mesma chave (request_id) em todas as tentativas, como no app
+     * (sem hedge: o app não faz cópia do lote)
+     */
+    private Result spinBatch(UserAccount account, int count) throws InterruptedException {
+        String requestId = UUID.randomUUID().toString();
+        String body = "{\"count\":" + count + ",\"request_id\":\"" + requestId + "\"}";
+        Result result = null;
+        for (int attempts = 0; attempts < SPIN_MAX_ATTEMPTS && running(); attempts++) {
+            if (attempts > 0) {
+                spinRetries.increment();
+                sleepMillis(spinBackoff(attempts));
+            }
+            result = send("spin_batch", post(account, SPIN_BATCH_PATH, body, requestId));
+            if (isFinal(result)) break;
+        }
+        return result != null ? result : Result.FAILED;
+    }
+
+    /**
+     * Mesmo backoff do RetryingSpinRequest: jitter total entre 0 e min(máx, base * 2^(n-1)),
+     * com n = requisições já enviadas
+     */
+    private static long spinBackoff(int attempts) {
+        long cap = Math.min(SPIN_BACKOFF_CAP_MS, SPIN_BACKOFF_BASE_MS << Math.min(attempts - 1, 10));
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    /**
+     * Sucesso ou erro de negócio: resposta final, sem nova tentativa
+     */
+    private static boolean isFinal(Result result) {
+        return result.ok || !result.retryable;
+    }
+
+    /**
+     * Estado do long-poll que sobrevive ao onPause/onResume (Cursor do TaskStatusWatcher)
+     */
+    private static final class WaitCursor {
+        volatile Boolean known;
+        volatile long version = -1;
+        volatile long checkedAt;
+    }
+
+    /**
+     * TaskStatusWatcher: long-poll enquanto a roleta está em primeiro plano
+     */
+    private static final class Watcher {
+        private final Thread thread;
+        private volatile boolean stopped;
+        private volatile CompletableFuture<Result> call;
+
+        private Watcher(RouletteLoadTest test, UserAccount account, WaitCursor cursor) {
+            thread = Thread.ofVirtual().unstarted(() -> {
+                long retryDelay = POLL_RETRY_MIN_MS;
+                int failures = 0;
+                while (!stopped && test.running()) {
+                    Boolean since = cursor.known;
+                    String url = PROGRESS_WAIT_PATH + "?user_id=" + account.userId
+                            + (since != null ? "&since=" + (since ? "1" : "0") : "")
+                            + "&version=" + cursor.version + "&checked_at=" + cursor.checkedAt
+                            + "&timeout=" + WAIT_HOLD_SECONDS;
+                    CompletableFuture<Result> current = test.sendAsync("progress_wait",
+                            test.get(account, url, WAIT_READ_TIMEOUT_MS));
+                    call = current;
+                    try {
+                        Result result = test.await(current);
+                        if (result.ok) {
+                            if (CHANGED.matcher(result.body).find()) test.waitChanged.increment();
+                            Boolean completed = booleanField(result.body, ALL_COMPLETED);
+                            if (completed != null) cursor.known = completed;
+                            cursor.version = longField(result.body, VERSION, cursor.version);
+                            cursor.checkedAt = longField(result.body, CHECKED_AT, cursor.checkedAt);
+                            retryDelay = POLL_RETRY_MIN_MS;
+                            failures = 0;
+                            int seconds = Math.min(intField(result.body, RETRY_AFTER, 0), WAIT_MAX_RETRY_AFTER_SECONDS);
+                            if (seconds > 0) test.waitDeferred.increment();
+                            sleepMillis(TimeUnit.SECONDS.toMillis(seconds));
+                        } else if (!stopped) {
+                            if (++failures >= POLL_MAX_FAILURES) return;
+                            sleepMillis(retryDelay);
+                            retryDelay = Math.min(retryDelay * 2, POLL_RETRY_MAX_MS);
+                        }
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            });
+        }
+
+        static Watcher start(RouletteLoadTest test, UserAccount account, WaitCursor cursor) {
+            Watcher watcher = new Watcher(test, account, cursor);
+            watcher.thread.start();
+            return watcher;
+        }
+
+        void stop() {
+            stopped = true;
+            CompletableFuture<Result> current = call;
+            if (current != null) current.cancel(true);
+            thread.interrupt();
+        }
+    }
+
+    // ==================== HTTP ====================
+
+    private static final class Result {
+        static final Result FAILED = new Result(false, false, "", 0);
+
+        final boolean ok;
+        final boolean retryable;
+        final String body;
+        final int status;
+
+        Result(boolean ok, boolean retryable, String body, int status) {
+            this.ok = ok;
+            this.retryable = retryable;
+            this.body = body;
+            this.status = status;
+        }
+    }
+
+    private HttpRequest.Builder request(UserAccount account, String path, long timeoutMs) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(options.baseUrl + path))
+                .timeout(Duration.ofMillis(timeoutMs))
+                .header("Authorization", "Bearer " + account.token)
+                .header("Accept", "application/json");
+        if (options.appVersion != null) builder.header("X-App-Version", options.appVersion);
+        return builder;
+    }
+
+    HttpRequest get(UserAccount account, String path) {
+        return get(account, path, REQUEST_TIMEOUT_MS);
+    }
+
+    HttpRequest get(UserAccount account, String path, long timeoutMs) {
+        return request(account, path, timeoutMs).GET().build();
+    }
+
+    HttpRequest post(UserAccount account, String path, String json, String idempotencyKey) {
+        HttpRequest.Builder builder = request(account, path, REQUEST_TIMEOUT_MS)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (idempotencyKey != null) builder.header("Idempotency-Key", idempotencyKey);
+        return builder.build();
+    }
+
+    /**
+     * Cancelar o futuro devolvido aborta a requisição (e ela não entra nas estatísticas)
+     */
+    CompletableFuture<Result> sendAsync(String endpoint, HttpRequest request) {
+        EndpointStats endpointStats = stats.get(endpoint);
+        long sentAt = System.nanoTime();
+        CompletableFuture<Result> result = new CompletableFuture<>();
+        CompletableFuture<HttpResponse<String>> exchange =
+                http.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+        exchange.whenComplete((response, error) -> {
+            if (result.isCancelled()) return;
+            long latencyNanos = System.nanoTime() - sentAt;
+            if (error != null) {
+                endpointStats.record(latencyNanos, false);
+                result.complete(new Result(false, true, "", 0));
+                return;
+            }
+            String body = response.body() != null ? response.body() : "";
+            int status = response.statusCode();
+            boolean ok = status == 200 && SUCCESS.matcher(body).find();
+            endpointStats.record(latencyNanos, ok);
+            if (!ok) endpointStats.recordStatus(status);
+            boolean retryable = status >= 500 || RETRYABLE.matcher(body).find();
+            result.complete(new Result(ok, retryable, body, status));
+        });
+        result.whenComplete((r, error) -> {
+            if (result.isCancelled()) exchange.cancel(true);
+        });
+        return result;
+    }
+
+    Result send(String endpoint, HttpRequest request) throws InterruptedException {
+        return await(sendAsync(endpoint, request));
+    }
+
+    Result await(CompletableFuture<Result> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        } catch (ExecutionException | CancellationException e) {
+            return Result.FAILED;
+        }
+    }
+
+    /**
+     * @return o resultado, ou null se não chegou em timeoutMs (a requisição continua)
+     */
+    Result awaitWithin(CompletableFuture<Result> future, long timeoutMs) throws InterruptedException {
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        } catch (ExecutionException | CancellationException e) {
+            return Result.FAILED;
+        }
+    }
+
+    /**
+     * Primeiro resultado entre duas requisições
+     */
+    Result awaitAny(CompletableFuture<Result> a, CompletableFuture<Result> b) throws InterruptedException {
+        try {
+            return (Result) CompletableFuture.anyOf(a, b).get();
+        } catch (InterruptedException e) {
+            a.cancel(true);
+            b.cancel(true);
+            throw e;
+        } catch (ExecutionException | CancellationException e) {
+            return Result.FAILED;
+        }
+    }
+
+    boolean running() {
+        return System.nanoTime() < deadline && !Thread.currentThread().isInterrupted();
+    }
+
+    // ==================== Relatório ====================
+
+    /**
+     * Latências em milissegundos num histograma de baldes de 1ms (até 2 minutos)
+     */
+    private static final class EndpointStats {
+        private static final int MAX_MS = 120000;
+
+        final String name;
+        final LongAdder ok = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final AtomicLong maxMs = new AtomicLong();
+        final AtomicLongArray buckets = new AtomicLongArray(MAX_MS + 1);
+        final Map<Integer, LongAdder> failedStatuses = new ConcurrentHashMap<>();
+
+        EndpointStats(String name) {
+            this.name = name;
+        }
+
+        void record(long latencyNanos, boolean success) {
+            long ms = TimeUnit.NANOSECONDS.toMillis(latencyNanos);
+            buckets.incrementAndGet((int) Math.min(ms, MAX_MS));
+            maxMs.accumulateAndGet(ms, Math::max);
+            (success ? ok : failed).increment();
+        }
+
+        void recordStatus(int status) {
+            failedStatuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+        }
+
+        long count() {
+            return ok.sum() + failed.sum();
+        }
+
+        long percentile(double p) {
+            long total = 0;
+            for (int i = 0; i < buckets.length(); i++) total += buckets.get(i);
+            if (total == 0) return 0;
+            long rank = (long) Math.ceil(p / 100.0 * total);
+            long seen = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) return i;
+            }
+            return MAX_MS;
+        }
+    }
+
+    private void reportPeriodically() {
+        long lastCount = 0;
+        long lastAt = System.nanoTime();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(options.reportIntervalSeconds * 1000L);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long count = 0;
+            long failed = 0;
+            for (EndpointStats endpoint : stats.values()) {
+                count += endpoint.count();
+                failed += endpoint.failed.sum();
+            }
+            long now = System.nanoTime();
+            double rate = (count - lastCount) / ((now - lastAt) / 1e9);
+            System.out.printf(Locale.ROOT, "📈 %4ds | ativos %5d | concluídos %6d | %8.1f req/s | falhas %d%n",
+                    TimeUnit.NANOSECONDS.toSeconds(now - startedAt), activeUsers.get(),
+                    finishedUsers.get(), rate, failed);
+            lastCount = count;
+            lastAt = now;
+        }
+    }
+
+    private void printReport() {
+        double elapsedSeconds = (System.nanoTime() - startedAt) / 1e9;
+        System.out.printf(Locale.ROOT, "%n📊 Resultado: %.1fs, %d sessões concluídas, %d novas tentativas de giro,"
+                        + " %d cópias (hedge)%n",
+                elapsedSeconds, finishedUsers.get(), spinRetries.sum(), spinHedges.sum());
+        System.out.printf(Locale.ROOT, "%-14s %9s %8s %9s %7s %7s %7s %7s%n",
+                "endpoint", "reqs", "falhas", "req/s", "p50", "p95", "p99", "max");
+        for (EndpointStats endpoint : stats.values()) {
+            if (endpoint.count() == 0) continue;
+            System.out.printf(Locale.ROOT, "%-14s %9d %8d %9.1f %5dms %5dms %5dms %5dms%n",
+                    endpoint.name, endpoint.count(), endpoint.failed.sum(), endpoint.count() / elapsedSeconds,
+                    endpoint.percentile(50), endpoint.percentile(95), endpoint.percentile(99),
+                    endpoint.maxMs.get());
+            if (!endpoint.failedStatuses.isEmpty()) {
+                System.out.println("               HTTP com falha: " + endpoint.failedStatuses);
+            }
+        }
+        EndpointStats polls = stats.get("progress_wait");
+        if (polls.count() > 0) {
+            System.out.printf(Locale.ROOT, "progress_wait: %d de %d respostas com mudança,"
+                            + " %d pediram espera (retry_after)%n",
+                    waitChanged.sum(), polls.count(), waitDeferred.sum());
+        }
+        if (statusFallbacks.sum() > 0) {
+            System.out.printf(Locale.ROOT, "bootstrap sem task_progress: %d aberturas usaram progress + stats%n",
+                    statusFallbacks.sum());
+        }
+    }
+
+    // ==================== Utilitários ====================
+
+    static long exponential(double mean) {
+        if (mean <= 0) return 0;
+        return (long) (-mean * Math.log(1.0 - ThreadLocalRandom.current().nextDouble()));
+    }
+
+    static void sleepMillis(long ms) throws InterruptedException {
+        if (ms > 0) Thread.sleep(ms);
+    }
+
+    static int intField(String body, Pattern pattern, int fallback) {
+        Matcher matcher = pattern.matcher(body);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : fallback;
+    }
+
+    static long longField(String body, Pattern pattern, long fallback) {
+        Matcher matcher = pattern.matcher(body);
+        return matcher.find() ? Long.parseLong(matcher.group(1)) : fallback;
+    }
+
+    /**
+     * @return null se o campo não veio
+     */
+    static Boolean booleanField(String body, Pattern pattern) {
+        Matcher matcher = pattern.matcher(body);
+        return matcher.find() ? Boolean.valueOf(matcher.group(1)) : null;
+    }
+
+    static final class UserAccount {
+        final String userId;
+        final String token;
+
+        UserAccount(String userId, String token) {
+            this.userId = userId;
+            this.token = token;
+        }
+
+        /**
+         * Linhas "user_id,token"; vazias e iniciadas por # são ignoradas
+         */
+        static List<UserAccount> load(Path file) throws IOException {
+            List<UserAccount> accounts = new ArrayList<>();
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] parts = line.split(",", 2);
+                if (parts.length == 2) accounts.add(new UserAccount(parts[0].trim(), parts[1].trim()));
+            }
+            return accounts;
+        }
+
+        static List<UserAccount> generate(int count) {
+            List<UserAccount> accounts = new ArrayList<>(count);
+            for (int i = 1; i <= count; i++) {
+                accounts.add(new UserAccount(String.valueOf(i), "loadtest-" + i));
+            }
+            return accounts;
+        }
+    }
+
+    static final class Options {
+        String baseUrl = "http://localhost:8080/";
+        String usersFile;
+        String statsPath = "monetag/stats/";
+        String appVersion;
+        int users = 1000;
+        double arrivalRate = 50;
+        int durationSeconds = 300;
+        long thinkMs = 3000;
+        long taskPageMs = 20000;
+        long animationMs = 4500;
+        int resumes = 2;
+        double autoSpinRatio = 0.5;
+        boolean batch = true;
+        int reportIntervalSeconds = 10;
+        boolean stub;
+        int stubPort;
+        long stubLatencyMs = 30;
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            Map<String, String> values = new HashMap<>();
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (!arg.startsWith("--")) usage("Argumento inesperado: " + arg);
+                String key = arg.substring(2);
+                if (key.equals("help")) usage(null);
+                if (key.equals("stub")) {
+                    values.put(key, "true");
+                } else if (i + 1 < args.length) {
+                    values.put(key, args[++i]);
+                } else {
+                    usage("Falta o valor de " + arg);
+                }
+            }
+            try {
+                for (Map.Entry<String, String> entry : values.entrySet()) {
+                    String value = entry.getValue();
+                    switch (entry.getKey()) {
+                        case "base-url" -> options.baseUrl = value.endsWith("/") ? value : value + "/";
+                        case "users-file" -> options.usersFile = value;
+                        case "stats-path" -> options.statsPath = value;
+                        case "app-version" -> options.appVersion = value;
+                        case "users" -> options.users = Integer.parseInt(value);
+                        case "arrival-rate" -> options.arrivalRate = Double.parseDouble(value);
+                        case "duration-s" -> options.durationSeconds = Integer.parseInt(value);
+                        case "think-ms" -> options.thinkMs = Long.parseLong(value);
+                        case "task-page-ms" -> options.taskPageMs = Long.parseLong(value);
+                        case "animation-ms" -> options.animationMs = Long.parseLong(value);
+                        case "resumes" -> options.resumes = Integer.parseInt(value);
+                        case "auto-spin-ratio" -> options.autoSpinRatio = Double.parseDouble(value);
+                        case "batch" -> options.batch = Boolean.parseBoolean(value);
+                        case "report-interval-s" -> options.reportIntervalSeconds = Integer.parseInt(value);
+                        case "stub" -> options.stub = true;
+                        case "stub-port" -> options.stubPort = Integer.parseInt(value);
+                        case "stub-latency-ms" -> options.stubLatencyMs = Long.parseLong(value);
+                        default -> usage("Opção desconhecida: --" + entry.getKey());
+                    }
+                }
+            } catch (NumberFormatException e) {
+                usage("Número inválido: " + e.getMessage());
+            }
+            if (options.arrivalRate <= 0) usage("--arrival-rate deve ser maior que zero");
+            return options;
+        }
+
+        static void usage(String error) {
+            if (error != null) System.err.println("❌ " + error);
+            System.err.println(String.join("\n",
+                    "Uso: java tools/loadtest/RouletteLoadTest.java [opções]",
+                    "  --base-url URL          API alvo (padrão http://localhost:8080/)",
+                    "  --users-file ARQ        linhas \"user_id,token\" (padrão: ids 1..N, sem token válido)",
+                    "  --users N               usuários simulados no total (1000)",
+                    "  --arrival-rate R        chegadas por segundo, Poisson (50)",
+                    "  --duration-s S          duração máxima do teste (300)",
+                    "  --think-ms MS           pausa média entre ações (3000)",
+                    "  --task-page-ms MS       tempo médio na página de tarefas (20000)",
+                    "  --animation-ms MS       duração da animação de um giro (4500)",
+                    "  --resumes N             idas à página de tarefas por sessão (2)",
+                    "  --auto-spin-ratio F     fração de sessões em auto-spin (0.5)",
+                    "  --batch true|false      auto-spin via spin_batch.php ou rajada de spin.php (true)",
+                    "  --stats-path PATH       estatísticas (sem task_progress no bootstrap), + user_id (monetag/stats/)",
+                    "  --app-version V         header X-App-Version",
+                    "  --report-interval-s S   intervalo do progresso no console (10)",
+                    "  --stub                  sobe um servidor falso embutido e testa contra ele",
+                    "  --stub-port P           porta do servidor falso (livre)",
+                    "  --stub-latency-ms MS    latência média do servidor falso (30)"));
+            System.exit(error != null ? 2 : 0);
+        }
+    }
+
+    // ==================== Servidor falso ====================
+
+    /**
+     * Responde os endpoints da roleta com o formato da API real, latência
+     * exponencial e giros por usuário em memória
+     */
+    static final class StubServer {
+        private final HttpServer server;
+        private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        private final Map<String, AtomicInteger> spins = new ConcurrentHashMap<>();
+        // Resposta por Idempotency-Key: tentativas e cópias (hedge) do mesmo giro não gastam outro
+        private final Map<String, String> settled = new ConcurrentHashMap<>();
+        private final long latencyMs;
+        private final int maxDailySpins = 10;
+
+        private StubServer(HttpServer server, long latencyMs) {
+            this.server = server;
+            this.latencyMs = latencyMs;
+            server.setExecutor(executor);
+            server.createContext("/" + SPIN_PATH, exchange -> handle(exchange, body -> {
+                AtomicInteger remaining = spinsOf(exchange);
+                if ("POST".equals(exchange.getRequestMethod())) {
+                    return once(exchange, () -> {
+                        int left = remaining.getAndUpdate(n -> Math.max(n - 1, 0));
+                        if (left == 0) return error("Você não tem giros disponíveis. Volte amanhã!");
+                        return success("{\"prize_value\":" + prize() + ",\"spins_remaining\":" + (left - 1)
+                                + ",\"server_timestamp\":" + System.currentTimeMillis() + "}");
+                    });
+                }
+                return success("{\"spins_remaining\":" + remaining.get() + ",\"spins_today\":"
+                        + (maxDailySpins - remaining.get()) + ",\"max_daily_spins\":" + maxDailySpins
+                        + ",\"task_completed\":false,\"task_progress\":" + progressJson() + ",\"server_timestamp\":" + System.currentTimeMillis() + "}");
+            }));
+            server.createContext("/" + SPIN_BATCH_PATH, exchange -> handle(exchange, body -> {
+                int requested = intField(body, Pattern.compile("\"count\"\\s*:\\s*(\\d+)"), 1);
+                AtomicInteger remaining = spinsOf(exchange);
+                return once(exchange, () -> {
+                    int left = remaining.getAndUpdate(n -> Math.max(n - requested, 0));
+                    int count = Math.min(left, requested);
+                    if (count == 0) return error("Você não tem giros disponíveis. Volte amanhã!");
+                    StringBuilder prizes = new StringBuilder();
+                    for (int i = 0; i < count; i++) {
+                        if (i > 0) prizes.append(',');
+                        prizes.append("{\"prize_value\":").append(prize()).append('}');
+                    }
+                    return success("{\"prizes\":[" + prizes + "],\"spins_remaining\":" + (left - count)
+                            + ",\"server_timestamp\":" + System.currentTimeMillis() + "}");
+                });
+            }));
+            server.createContext("/" + PROGRESS_PATH, exchange -> handle(exchange,
+                    body -> "{\"success\":true,\"data\":" + progressJson() + "}"));
+            server.createContext("/" + PROGRESS_WAIT_PATH, exchange -> handle(exchange, body -> {
+                // Progresso nunca muda no servidor falso (sempre pendente, versão 0): sem estado
+                // conhecido responde na hora; com ele segura até o timeout e responde sem mudança
+                String query = exchange.getRequestURI().getRawQuery();
+                query = query != null ? query : "";
+                boolean hasSince = Pattern.compile("(^|&)since=").matcher(query).find();
+                if (hasSince) {
+                    int timeout = intField(query, Pattern.compile("(?:^|&)timeout=(\\d+)"), WAIT_HOLD_SECONDS);
+                    Thread.sleep(TimeUnit.SECONDS.toMillis(Math.min(timeout, 30)));
+                }
+                return "{\"success\":true,\"data\":" + progressJson().replace("}", ",\"changed\":" + !hasSince
+                        + ",\"version\":0,\"checked_at\":" + System.currentTimeMillis() / 1000
+                        + ",\"retry_after\":0}") + "}";
+            }));
+            server.createContext("/", exchange -> handle(exchange,
+                    body -> "{\"success\":true,\"data\":{\"impressions\":0,\"clicks\":0}}"));
+        }
+
+        static StubServer start(int port, long latencyMs) throws IOException {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", port), 1024);
+            StubServer stub = new StubServer(server, latencyMs);
+            server.start();
+            return stub;
+        }
+
+        int port() {
+            return server.getAddress().getPort();
+        }
+
+        void stop() {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+
+        private interface Handler {
+            String respond(String requestBody) throws Exception;
+        }
+
+        private void handle(HttpExchange exchange, Handler handler) throws IOException {
+            try {
+                String requestBody = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+                int status = 200;
+                String body;
+                try {
+                    Thread.sleep(exponential(latencyMs));
+                    body = handler.respond(requestBody);
+                } catch (Exception e) {
+                    status = 500;
+                    body = "{\"status\":\"error\",\"message\":\"" + e.getClass().getSimpleName()
+                            + "\",\"data\":{\"retryable\":true}}";
+                }
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(status, bytes.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            } finally {
+                exchange.close();
+            }
+        }
+
+        /**
+         * Executa uma vez por Idempotency-Key; requisições com a mesma chave recebem a mesma resposta
+         */
+        private String once(HttpExchange exchange, Supplier<String> settle) {
+            String key = exchange.getRequestHeaders().getFirst("Idempotency-Key");
+            if (key == null) return settle.get();
+            return settled.computeIfAbsent(key, k -> settle.get());
+        }
+
+        private AtomicInteger spinsOf(HttpExchange exchange) {
+            String token = exchange.getRequestHeaders().getFirst("Authorization");
+            return spins.computeIfAbsent(token != null ? token : "", t -> new AtomicInteger(maxDailySpins));
+        }
+
+        private static int prize() {
+            int[] values = {100, 250, 500, 750, 1000, 1500, 2000, 5000};
+            return values[ThreadLocalRandom.current().nextInt(values.length)];
+        }
+
+        private static String progressJson() {
+            return "{\"impressions\":0,\"clicks\":0,\"all_completed\":false}";
+        }
+
+        private static String success(String data) {
+            return "{\"status\":\"success\",\"data\":" + data + "}";
+        }
+
+        private static String error(String message) {
+            return "{\"status\":\"error\",\"message\":\"" + message + "\"}";
+        }
+
+    }
+}
@@ -0,0 +1,219 @@
+import android.util.JsonReader;
+
+import com.youngmoney2.api.TaskProgress;
+import com.youngmoney2.metrics.LatencyHistogram;
+import com.youngmoney2.metrics.PerfBudget;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * PerfCheck - Verificações das métricas da roleta fora do aparelho
+ *
+ * Confere, na JVM, as peças que o relatório de sessão usa. Só reprova em
+ * verificações determinísticas:
+ * - LatencyHistogram: percentis dentro do erro de ~5%
+ * - TaskProgress: parsing da resposta de progress.php (campos e padrões)
+ * - PerfBudget: aprovação/reprovação e métricas ausentes ignoradas
+ * - Relatórios exportados pelo app (files/roulette_metrics/session-*.json),
+ *   passados como argumento, avaliados contra PerfBudget.defaults(); as
+ *   medições são do aparelho, então este é o gate de desempenho de verdade
+ *
+ * Os custos por operação (record, parse, evaluate) são só informativos:
+ * tempo de parede numa JVM compartilhada varia demais para reprovar.
+ *
+ * Fora do escopo (ficam para o build Android, que não está neste repositório):
+ * microbenchmarks no estilo JMH (incluindo o diff de WebBridgeDispatcher.flush,
+ * que depende de WebView e org.json reais), um harness do fluxo da activity
+ * (Macrobenchmark/instrumentado) e a ligação ao build para reprovar o CI.
+ *
+ * As classes do app usam android.util.JsonReader e org.json, então rodar exige
+ * compilar com javac os pacotes com.youngmoney2.api e com.youngmoney2.metrics
+ * (app-source/android) contra um android.jar com implementação real (ex.:
+ * android-all do Robolectric) e pôr os dois no classpath:
+ *   java -cp classes:android-all.jar tools/perfcheck/PerfCheck.java [relatorio.json ...]
+ *
+ * Sai com código 1 se alguma verificação ou orçamento falhar, 2 em erro de uso.
+ * A avaliação de orçamento fica aqui e nos builds debug; o app release não a executa.
+ */
+public class PerfCheck {
+    // Custos medidos (melhor de ROUNDS rodadas), apenas exibidos
+    static final int ROUNDS = 5;
+
+    static final String PROGRESS_RESPONSE = "{\"success\":true,\"data\":{\"impressions\":4,\"clicks\":1,"
+            + "\"required_impressions\":5,\"required_clicks\":1,\"all_completed\":false,"
+            + "\"tasks\":[{\"id\":1},{\"id\":2}]},\"server_time\":\"2024-01-01 10:00:00\"}";
+
+    private int failures;
+
+    public static void main(String[] args) throws Exception {
+        PerfCheck check = new PerfCheck();
+        check.histogram();
+        check.taskProgress();
+        check.perfBudget();
+        for (String file : args) {
+            Path path = Path.of(file);
+            if (!Files.isRegularFile(path)) {
+                System.err.println("❌ Relatório não encontrado: " + file);
+                System.exit(2);
+            }
+            check.report(path);
+        }
+
+        if (check.failures > 0) {
+            System.out.println("\n❌ " + check.failures + " verificação(ões) reprovada(s)");
+            System.exit(1);
+        }
+        System.out.println("\n✅ Tudo dentro do orçamento");
+    }
+
+    void histogram() throws Exception {
+        System.out.println("📊 LatencyHistogram");
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        check("p50 ~ 500ms", within(histogram.percentile(50), 500, 0.05), histogram.percentile(50) + "ms");
+        check("p99 ~ 990ms", within(histogram.percentile(99), 990, 0.05), histogram.percentile(99) + "ms");
+        check("p100 = máximo", histogram.percentile(100) == 1000, histogram.percentile(100) + "ms");
+        check("vazio = 0", new LatencyHistogram().percentile(95) == 0, "");
+        JSONObject json = histogram.toJson();
+        check("toJson com count/p95", json.optLong("count") == 1000 && json.has("p95"), json.toString());
+
+        int samples = 1_000_000;
+        long nanos = best(() -> {
+            LatencyHistogram h = new LatencyHistogram();
+            for (int i = 0; i < samples; i++) {
+                h.record(i & 4095);
+            }
+        });
+        cost("record()", nanos / samples, "ns/op");
+    }
+
+    void taskProgress() throws Exception {
+        System.out.println("📊 TaskProgress");
+        TaskProgress progress = parseProgress(PROGRESS_RESPONSE, 5, 1);
+        check("campos lidos", progress.success && progress.impressions == 4 && progress.clicks == 1
+                && progress.requiredImpressions == 5 && progress.requiredClicks == 1
+                && !progress.allCompleted, "");
+
+        TaskProgress defaults = parseProgress("{\"success\":true,\"data\":{\"impressions\":2}}", 7, 3);
+        check("limites ausentes usam o padrão", defaults.requiredImpressions == 7
+                && defaults.requiredClicks == 3, defaults.requiredImpressions + "/" + defaults.requiredClicks);
+
+        TaskProgress noData = parseProgress("{\"success\":true,\"data\":null}", 5, 1);
+        check("sem data não é sucesso", !noData.success, "");
+
+        int responses = 20_000;
+        long nanos = best(() -> {
+            for (int i = 0; i < responses; i++) {
+                parseProgress(PROGRESS_RESPONSE, 5, 1);
+            }
+        });
+        cost("parse()", nanos / responses / 1000, "µs/resposta");
+    }
+
+    void perfBudget() throws Exception {
+        System.out.println("📊 PerfBudget");
+        PerfBudget budget = new PerfBudget()
+                .limit("phases.page_finished", 2000)
+                .limit("histograms.spin_request.p95", 1500);
+
+        JSONObject fast = session(1200, 900);
+        check("sessão dentro do limite aprova", budget.evaluate(fast).optBoolean("passed", false), "");
+
+        JSONObject slow = session(2500, 900);
+        JSONObject slowResult = budget.evaluate(slow);
+        check("sessão fora do limite reprova", !slowResult.optBoolean("passed", true), slowResult.toString());
+
+        JSONObject partial = new JSONObject();
+        partial.put("phases", new JSONObject().put("page_finished", 100));
+        JSONObject partialResult = budget.evaluate(partial);
+        check("métrica ausente é ignorada", partialResult.optBoolean("passed", false)
+                && partialResult.optJSONArray("checks").length() == 1, partialResult.toString());
+
+        PerfBudget defaults = PerfBudget.defaults();
+        int evaluations = 10_000;
+        long nanos = best(() -> {
+            for (int i = 0; i < evaluations; i++) {
+                defaults.evaluate(fast);
+            }
+        });
+        cost("evaluate()", nanos / evaluations / 1000, "µs/sessão");
+    }
+
+    void report(Path path) throws Exception {
+        System.out.println("📊 " + path);
+        JSONObject report = new JSONObject(new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+        JSONObject session = report.optJSONObject("session");
+        if (session == null) {
+            check("relatório com sessão", false, "sem bloco \"session\"");
+            return;
+        }
+        JSONArray checks = PerfBudget.defaults().evaluate(session).optJSONArray("checks");
+        for (int i = 0; checks != null && i < checks.length(); i++) {
+            JSONObject item = checks.optJSONObject(i);
+            budget(item.optString("metric"), item.optLong("value"), item.optLong("max"), "");
+        }
+    }
+
+    /**
+     * Custo medido, sem aprovar nem reprovar
+     */
+    private static void cost(String name, long value, String unit) {
+        System.out.printf(Locale.ROOT, "  ⏱️ %s: %d%s (informativo)%n", name, value, unit);
+    }
+
+    private void budget(String name, long value, long max, String unit) {
+        check(name + " ≤ " + max + unit, value <= max, value + unit);
+    }
+
+    private void check(String name, boolean ok, String detail) {
+        if (!ok) failures++;
+        System.out.printf(Locale.ROOT, "  %s %s%s%n", ok ? "✅" : "❌", name,
+                detail.isEmpty() ? "" : " (" + detail + ")");
+    }
+
+    private static TaskProgress parseProgress(String body, int defaultImpressions, int defaultClicks)
+            throws Exception {
+        try (JsonReader reader = new JsonReader(new StringReader(body))) {
+            return TaskProgress.parser(defaultImpressions, defaultClicks).parse(reader);
+        }
+    }
+
+    private static JSONObject session(long pageFinished, long spinP95) throws Exception {
+        JSONObject session = new JSONObject();
+        session.put("phases", new JSONObject().put("page_finished", pageFinished));
+        session.put("histograms", new JSONObject()
+                .put("spin_request", new JSONObject().put("p95", spinP95)));
+        return session;
+    }
+
+    private static boolean within(long value, long expected, double tolerance) {
+        return Math.abs(value - expected) <= expected * tolerance;
+    }
+
+    /**
+     * Melhor tempo (ns) entre ROUNDS rodadas, depois de uma rodada de aquecimento
+     */
+    private static long best(Workload workload) throws Exception {
+        workload.run();
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            long startedAt = System.nanoTime();
+            workload.run();
+            best = Math.min(best, System.nanoTime() - startedAt);
+        }
+        return best;
+    }
+
+    interface Workload {
+        void run() throws Exception;
+    }
+}